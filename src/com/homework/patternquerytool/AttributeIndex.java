@@ -0,0 +1,308 @@
+package com.homework.patternquerytool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Index from one attribute of a PatternCall (name or file path) to the
+ * PatternCalls having that value, maintained according to an IndexPolicy.
+ *
+ * <p>
+ * Under the eager policy this is a plain hash index. Under the adaptive policy
+ * the hash index is only built once the attribute has been looked up often
+ * enough and is dropped again by {@link #maintain()} when it goes unused; while
+ * it is absent, lookups scan the repository's records and the results of keys
+ * requested more than once are kept, unmodifiable, in a small LRU cache.
+ * Lookups under the adaptive policy synchronize on the index, since they update
+ * its statistics, but scan the records outside the monitor: the repository's
+ * read lock already keeps writers out, so concurrent lookups of different keys
+ * scan in parallel.
+ * </p>
+ *
+ * <p>
+ * Each call's slot in its posting list is kept by id, so removals and updates
+ * touch a single slot: a removal leaves a tombstone (null) that lookups skip,
+ * and a posting list is compacted once tombstones make up half of it.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+class AttributeIndex {
+
+	private final Function<PatternCall, String> keyOf;
+	private final List<PatternCall> records; // The repository's pattern call list, may contain tombstones
+	private final IndexPolicy policy;
+
+	private Map<String, Postings> index; // null while not built
+	private final Map<Integer, Integer> slots = new HashMap<>(); // Maps id to its slot in its posting list
+	private final Map<String, List<PatternCall>> hotKeys;
+	private final Map<String, Integer> keyCounts = new HashMap<>();
+	private final LongAdder lookups = new LongAdder();
+	private int unindexedLookups;
+	private int windowLookups;
+
+	AttributeIndex(Function<PatternCall, String> keyOf, List<PatternCall> records, IndexPolicy policy) {
+		this.keyOf = keyOf;
+		this.records = records;
+		this.policy = policy;
+		this.index = policy.isAdaptive() ? null : new HashMap<>();
+		this.hotKeys = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, List<PatternCall>> eldest) {
+				return size() > policy.getHotKeyCacheSize();
+			}
+		};
+	}
+
+	/**
+	 * Returns the PatternCalls with the given attribute value.
+	 */
+	List<PatternCall> lookup(String key) {
+		lookups.increment();
+		if (!policy.isAdaptive()) {
+			return postingsOf(key);
+		}
+		synchronized (this) {
+			if (lookedUp()) {
+				return postingsOf(key);
+			}
+			List<PatternCall> cached = hotKeys.get(key);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		List<PatternCall> result = Collections.unmodifiableList(scan(key));
+		cache(key, result);
+		return result;
+	}
+
+	/**
+	 * Passes the PatternCalls with the given attribute value to the collector
+	 * until it stops the query. Without an index the scan of the records checks
+	 * the collector's limits as it goes, and its result is only cached if it
+	 * completed.
+	 */
+	void lookup(String key, QueryCollector collector) {
+		lookups.increment();
+		List<PatternCall> source;
+		boolean scan = false;
+		if (!policy.isAdaptive()) {
+			source = entriesOf(key);
+		} else {
+			synchronized (this) {
+				if (lookedUp()) {
+					source = entriesOf(key);
+				} else {
+					source = hotKeys.get(key);
+					if (source == null) {
+						source = records;
+						scan = true;
+					}
+				}
+			}
+		}
+
+		for (PatternCall patternCall : source) {
+			if (!collector.scanned()) {
+				return;
+			}
+			if (patternCall != null && (!scan || Objects.equals(keyOf.apply(patternCall), key))
+					&& !collector.add(patternCall)) {
+				return;
+			}
+		}
+		if (scan) {
+			cache(key, Collections.unmodifiableList(collector.matches()));
+		}
+	}
+
+	/**
+	 * Drops the index if it saw no lookups since the previous call. Called by the
+	 * repository every drop interval.
+	 */
+	synchronized void maintain() {
+		if (index != null && windowLookups == 0) {
+			index = null;
+			slots.clear();
+			unindexedLookups = 0;
+		}
+		windowLookups = 0;
+	}
+
+	synchronized void added(PatternCall patternCall) {
+		String key = keyOf.apply(patternCall);
+		if (index != null) {
+			addToIndex(key, patternCall);
+		}
+		hotKeys.remove(key);
+	}
+
+	synchronized void removed(PatternCall patternCall) {
+		String key = keyOf.apply(patternCall);
+		if (index != null) {
+			removeFromIndex(key, patternCall.getId());
+		}
+		hotKeys.remove(key);
+	}
+
+	synchronized void replaced(PatternCall previous, PatternCall patternCall) {
+		String oldKey = keyOf.apply(previous);
+		String newKey = keyOf.apply(patternCall);
+		if (index != null) {
+			if (Objects.equals(oldKey, newKey)) {
+				index.get(oldKey).entries.set(slots.get(patternCall.getId()), patternCall);
+			} else {
+				removeFromIndex(oldKey, previous.getId());
+				addToIndex(newKey, patternCall);
+			}
+		}
+		hotKeys.remove(oldKey);
+		hotKeys.remove(newKey);
+	}
+
+	synchronized boolean isBuilt() {
+		return index != null;
+	}
+
+	long getLookupCount() {
+		return lookups.sum();
+	}
+
+	/**
+	 * Counts an adaptive lookup, building the index once enough lookups went
+	 * without it, and returns whether the index is built.
+	 */
+	private boolean lookedUp() {
+		windowLookups++;
+		if (index == null && ++unindexedLookups >= policy.getBuildThreshold()) {
+			build();
+		}
+		return index != null;
+	}
+
+	/**
+	 * Caches the scanned result of a key once it was requested more than once.
+	 */
+	private synchronized void cache(String key, List<PatternCall> result) {
+		if (index == null && policy.getHotKeyCacheSize() > 0 && countKey(key) > 1) {
+			hotKeys.put(key, result);
+		}
+	}
+
+	private void build() {
+		index = new HashMap<>();
+		slots.clear();
+		for (PatternCall patternCall : records) {
+			if (patternCall != null) {
+				addToIndex(keyOf.apply(patternCall), patternCall);
+			}
+		}
+		hotKeys.clear();
+		keyCounts.clear();
+	}
+
+	private List<PatternCall> scan(String key) {
+		List<PatternCall> result = new ArrayList<>();
+		for (PatternCall patternCall : records) {
+			if (patternCall != null && Objects.equals(keyOf.apply(patternCall), key)) {
+				result.add(patternCall);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Counts a request for the key and returns its count. The counts are reset
+	 * when they cover far more keys than the cache holds, so only recent
+	 * frequency counts.
+	 */
+	private int countKey(String key) {
+		if (keyCounts.size() >= 8 * policy.getHotKeyCacheSize()) {
+			keyCounts.clear();
+		}
+		return keyCounts.merge(key, 1, Integer::sum);
+	}
+
+	/**
+	 * Returns a copy of the posting list of the key without its tombstones, so
+	 * callers never see the list that later changes modify.
+	 */
+	private List<PatternCall> postingsOf(String key) {
+		Postings postings = index.get(key);
+		if (postings == null) {
+			return List.of();
+		}
+		List<PatternCall> result = new ArrayList<>(postings.entries.size() - postings.tombstones);
+		for (PatternCall patternCall : postings.entries) {
+			if (patternCall != null) {
+				result.add(patternCall);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the posting list of the key itself, tombstones included.
+	 */
+	private List<PatternCall> entriesOf(String key) {
+		Postings postings = index.get(key);
+		return postings == null ? List.of() : postings.entries;
+	}
+
+	private void addToIndex(String key, PatternCall patternCall) {
+		Postings postings = index.computeIfAbsent(key, k -> new Postings());
+		slots.put(patternCall.getId(), postings.entries.size());
+		postings.entries.add(patternCall);
+	}
+
+	/**
+	 * Leaves a tombstone in the slot of the id, dropping the key once its
+	 * posting list is empty and compacting the list once it is half tombstones.
+	 */
+	private void removeFromIndex(String key, int id) {
+		Postings postings = index.get(key);
+		postings.entries.set(slots.remove(id), null);
+		postings.tombstones++;
+		if (postings.tombstones == postings.entries.size()) {
+			index.remove(key);
+		} else if (postings.tombstones > postings.entries.size() / 2) {
+			compact(postings);
+		}
+	}
+
+	private void compact(Postings postings) {
+		List<PatternCall> entries = postings.entries;
+		int target = 0;
+		for (int i = 0; i < entries.size(); i++) {
+			PatternCall patternCall = entries.get(i);
+			if (patternCall != null) {
+				if (target != i) {
+					entries.set(target, patternCall);
+					slots.put(patternCall.getId(), target);
+				}
+				target++;
+			}
+		}
+		entries.subList(target, entries.size()).clear();
+		postings.tombstones = 0;
+	}
+
+	/**
+	 * The PatternCalls of one key in the order they were added, with tombstones
+	 * where calls were removed.
+	 */
+	private static final class Postings {
+		private final List<PatternCall> entries = new ArrayList<>();
+		private int tombstones;
+	}
+}
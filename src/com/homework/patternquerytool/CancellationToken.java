@@ -0,0 +1,29 @@
+package com.homework.patternquerytool;
+
+/**
+ * This class lets a caller cancel queries it started with a QueryOptions that
+ * carries the token. Running queries notice the cancellation at their next
+ * limit check and stop.
+ *
+ * @author soumya-s-goud
+ */
+public class CancellationToken {
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Requests cancellation of every query using this token.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Checks whether cancellation was requested.
+	 *
+	 * @return true if {@link #cancel()} was called
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
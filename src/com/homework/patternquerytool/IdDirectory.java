@@ -0,0 +1,114 @@
+package com.homework.patternquerytool;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from PatternCall id to the number of the segment
+ * holding it, stored in two primitive arrays so it takes 11 to 21 bytes per id,
+ * depending on how full the arrays are, instead of the boxed entries of a
+ * HashMap.
+ *
+ * <p>
+ * Collisions are resolved by linear probing, and removals shift the following
+ * entries of the probe sequence back, so no tombstones accumulate.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+class IdDirectory {
+
+	private static final int ABSENT = -1;
+
+	private int[] keys = new int[16];
+	private int[] values = newValues(16); // ABSENT marks a free slot
+	private int size;
+
+	/**
+	 * Returns the segment of the id, or -1 if the id is not stored.
+	 */
+	int get(int id) {
+		for (int slot = slot(id, keys.length);; slot = (slot + 1) & (keys.length - 1)) {
+			if (values[slot] == ABSENT) {
+				return ABSENT;
+			}
+			if (keys[slot] == id) {
+				return values[slot];
+			}
+		}
+	}
+
+	/**
+	 * Stores the segment of an id that is not stored yet.
+	 */
+	void put(int id, int segment) {
+		if ((size + 1) * 4L > keys.length * 3L) {
+			resize();
+		}
+		insert(keys, values, id, segment);
+		size++;
+	}
+
+	/**
+	 * Removes the id, returning its segment or -1 if it was not stored.
+	 */
+	int remove(int id) {
+		int slot = slot(id, keys.length);
+		while (values[slot] != ABSENT && keys[slot] != id) {
+			slot = (slot + 1) & (keys.length - 1);
+		}
+		int segment = values[slot];
+		if (segment == ABSENT) {
+			return ABSENT;
+		}
+
+		// Shift back the entries that probed past the freed slot
+		int free = slot;
+		for (int next = (free + 1) & (keys.length - 1); values[next] != ABSENT; next = (next + 1) & (keys.length - 1)) {
+			int home = slot(keys[next], keys.length);
+			if (((next - home) & (keys.length - 1)) >= ((next - free) & (keys.length - 1))) {
+				keys[free] = keys[next];
+				values[free] = values[next];
+				free = next;
+			}
+		}
+		values[free] = ABSENT;
+		size--;
+		return segment;
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void resize() {
+		int[] newKeys = new int[keys.length * 2];
+		int[] newValues = newValues(newKeys.length);
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (values[slot] != ABSENT) {
+				insert(newKeys, newValues, keys[slot], values[slot]);
+			}
+		}
+		keys = newKeys;
+		values = newValues;
+	}
+
+	private static void insert(int[] keys, int[] values, int id, int segment) {
+		int slot = slot(id, keys.length);
+		while (values[slot] != ABSENT) {
+			slot = (slot + 1) & (keys.length - 1);
+		}
+		keys[slot] = id;
+		values[slot] = segment;
+	}
+
+	private static int slot(int id, int capacity) {
+		int hash = id * 0x9E3779B9; // Fibonacci hashing spreads sequential ids
+		return (hash ^ (hash >>> 16)) & (capacity - 1);
+	}
+
+	private static int[] newValues(int capacity) {
+		int[] values = new int[capacity];
+		Arrays.fill(values, ABSENT);
+		return values;
+	}
+}
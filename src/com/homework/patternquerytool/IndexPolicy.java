@@ -0,0 +1,142 @@
+package com.homework.patternquerytool;
+
+/**
+ * This class describes how a PatternCallRepository maintains its name and path
+ * indexes.
+ *
+ * <ul>
+ * <li>{@link #eager()} builds both indexes up front and keeps them, which is
+ * the behaviour of the default repository.</li>
+ * <li>{@link #adaptive()} builds an index only once its attribute has been
+ * looked up {@link #getBuildThreshold()} times, and drops it again when it
+ * sees no lookups during {@link #getDropInterval()} lookups of the repository.
+ * Until then lookups scan the records, and the results of frequently requested
+ * keys are kept in a small least-recently-used cache of
+ * {@link #getHotKeyCacheSize()} entries per attribute.</li>
+ * </ul>
+ *
+ * @author soumya-s-goud
+ */
+public class IndexPolicy {
+
+	private static final IndexPolicy EAGER = new IndexPolicy(false, 0, 0, 0);
+
+	private final boolean adaptive;
+	private final int buildThreshold;
+	private final int hotKeyCacheSize;
+	private final int dropInterval;
+
+	private IndexPolicy(boolean adaptive, int buildThreshold, int hotKeyCacheSize, int dropInterval) {
+		this.adaptive = adaptive;
+		this.buildThreshold = buildThreshold;
+		this.hotKeyCacheSize = hotKeyCacheSize;
+		this.dropInterval = dropInterval;
+	}
+
+	/**
+	 * Returns the policy that always keeps both indexes.
+	 *
+	 * @return the eager policy
+	 */
+	public static IndexPolicy eager() {
+		return EAGER;
+	}
+
+	/**
+	 * Returns a policy that builds and drops indexes following the lookups, with
+	 * a build threshold of 64 lookups, 32 cached keys per attribute and a drop
+	 * interval of 10,000 lookups.
+	 *
+	 * @return the adaptive policy
+	 */
+	public static IndexPolicy adaptive() {
+		return new IndexPolicy(true, 64, 32, 10_000);
+	}
+
+	/**
+	 * Returns a copy of this adaptive policy building an index after the given
+	 * number of lookups of its attribute.
+	 *
+	 * @param buildThreshold the number of lookups before an index is built
+	 * @return the adjusted policy
+	 */
+	public IndexPolicy withBuildThreshold(int buildThreshold) {
+		requireAdaptive();
+		if (buildThreshold < 1) {
+			throw new IllegalArgumentException("Build threshold must be positive");
+		}
+		return new IndexPolicy(true, buildThreshold, hotKeyCacheSize, dropInterval);
+	}
+
+	/**
+	 * Returns a copy of this adaptive policy caching the given number of keys per
+	 * attribute.
+	 *
+	 * @param hotKeyCacheSize the number of cached keys, 0 to disable the cache
+	 * @return the adjusted policy
+	 */
+	public IndexPolicy withHotKeyCacheSize(int hotKeyCacheSize) {
+		requireAdaptive();
+		if (hotKeyCacheSize < 0) {
+			throw new IllegalArgumentException("Hot key cache size cannot be negative");
+		}
+		return new IndexPolicy(true, buildThreshold, hotKeyCacheSize, dropInterval);
+	}
+
+	/**
+	 * Returns a copy of this adaptive policy dropping an index that saw no
+	 * lookups during the given number of repository lookups.
+	 *
+	 * @param dropInterval the number of lookups between checks for unused indexes
+	 * @return the adjusted policy
+	 */
+	public IndexPolicy withDropInterval(int dropInterval) {
+		requireAdaptive();
+		if (dropInterval < 1) {
+			throw new IllegalArgumentException("Drop interval must be positive");
+		}
+		return new IndexPolicy(true, buildThreshold, hotKeyCacheSize, dropInterval);
+	}
+
+	/**
+	 * Checks whether indexes follow the lookups.
+	 *
+	 * @return true for the adaptive policy, false for the eager one
+	 */
+	public boolean isAdaptive() {
+		return adaptive;
+	}
+
+	/**
+	 * Gets the number of lookups of an attribute before its index is built.
+	 *
+	 * @return the build threshold, 0 for the eager policy
+	 */
+	public int getBuildThreshold() {
+		return buildThreshold;
+	}
+
+	/**
+	 * Gets the number of keys whose results are cached per attribute.
+	 *
+	 * @return the hot key cache size, 0 for the eager policy
+	 */
+	public int getHotKeyCacheSize() {
+		return hotKeyCacheSize;
+	}
+
+	/**
+	 * Gets the number of repository lookups between checks for unused indexes.
+	 *
+	 * @return the drop interval, 0 for the eager policy
+	 */
+	public int getDropInterval() {
+		return dropInterval;
+	}
+
+	private void requireAdaptive() {
+		if (!adaptive) {
+			throw new IllegalStateException("Only the adaptive policy can be tuned");
+		}
+	}
+}
@@ -1,5 +1,19 @@
 package com.homework.patternquerytool;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -11,6 +25,36 @@ import java.util.List;
  * PatternCall entries, and then uses PatternCallQueryService to retrieve and
  * display information based on various query criteria.
  * </p>
+ *
+ * <p>
+ * When started as {@code serve <file> [port] [--memory-budget <megabytes>]}
+ * it instead loads the given file once and serves queries over HTTP on the
+ * loopback interface, see {@link PatternCallQueryServer}. When started as
+ * {@code query <file-or-directory> [queries-file] [--format csv|json]
+ * [--memory-budget <megabytes>]} it loads the file or directory once, runs
+ * the queries read from the queries file or standard input and streams the
+ * matches to standard output, see {@link PatternCallBatchRunner}. With a
+ * memory budget either command keeps the records in a
+ * {@link SpillingPatternCallRepository}. Both commands also accept
+ * {@code --limit <maxResults>} and {@code --timeout <milliseconds>}, which
+ * bound every query that does not set its own limits, and
+ * {@code --parse-policy strict|skip|quarantine}, the {@link ParsePolicy} for
+ * invalid lines, strict by default. Failed files and rejected lines are
+ * printed to standard error; if a file fails to load the command exits with
+ * status 1 without serving or running any query.
+ * </p>
+ *
+ * <p>
+ * Any command can be preceded by {@code --warmup}, which runs a
+ * {@link PatternCallWarmUp} pass before the command and, for {@code serve} and
+ * {@code query}, its query passes again on a private repository of the kind
+ * loaded before the first query is answered, and by {@code --timing},
+ * which reports on standard error how long after JVM start the first result
+ * was available, or for {@code serve} and {@code warmup} how long until the
+ * command was ready. The {@code warmup} command only runs the warm-up; it is the
+ * training run used to record the class-data-sharing archive (see the
+ * {@code appcds} Maven profile).
+ * </p>
  * 
  * @author soumya-s-goud
  * 
@@ -21,9 +65,48 @@ public class Main {
 	 * The main method initializes the repository, adds PatternCall objects, and
 	 * demonstrates various queries using PatternCallQueryService.
 	 *
-	 * @param args command-line arguments (not used)
+	 * @param args command-line arguments, optionally {@code --warmup} and
+	 *             {@code --timing} followed by {@code serve <file> [port]} to
+	 *             start the query server, {@code query <file-or-directory>
+	 *             [queries-file] [--format csv|json]} to run a batch of queries
+	 *             or {@code warmup} to only warm up, instead of the demo; serve
+	 *             and query accept {@code --memory-budget <megabytes>},
+	 *             {@code --limit <maxResults>},
+	 *             {@code --timeout <milliseconds>} and
+	 *             {@code --parse-policy strict|skip|quarantine}
+	 * @throws IOException if a file cannot be read or the server cannot start
 	 */
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+
+		List<String> arguments = new ArrayList<>(List.of(args));
+		boolean warmUp = arguments.remove("--warmup");
+		boolean timing = arguments.remove("--timing");
+		String command = arguments.isEmpty() ? "" : arguments.get(0);
+
+		if (warmUp || command.equals("warmup")) {
+			Duration warmUpTime = new PatternCallWarmUp().run();
+			if (timing) {
+				System.err.println("Warm-up took " + warmUpTime.toMillis() + " ms");
+			}
+		}
+		if (command.equals("warmup")) {
+			if (timing) {
+				reportUptime("Time to ready");
+			}
+			return;
+		}
+		if (command.equals("serve")) {
+			if (!serve(arguments, warmUp, timing)) {
+				System.exit(1);
+			}
+			return;
+		}
+		if (command.equals("query")) {
+			if (!query(arguments, warmUp, timing)) {
+				System.exit(1);
+			}
+			return;
+		}
 
 		// Initialize the repository
 		PatternCallRepository repository = new PatternCallRepository();
@@ -40,6 +123,9 @@ public class Main {
 		// Retrieve and display a pattern call by ID
 		PatternCall retrievedById = queryService.getPatternCallById(42);
 		System.out.println("Retrieved by ID 42: " + retrievedById.getName());
+		if (timing) {
+			reportUptime("Time to first result");
+		}
 
 		// Retrieve and display pattern calls by name
 		List<PatternCall> callsByName = queryService.getPatternCallsByName("myPattern");
@@ -70,4 +156,324 @@ public class Main {
 			System.out.println(" - ID: " + pc.getId() + ", Name: " + pc.getName());
 		}
 	}
+
+	/**
+	 * Loads the repository file named in the arguments and serves it until the
+	 * process is terminated.
+	 *
+	 * @param args   {@code serve <file> [port]}, the port defaults to 8080, with
+	 *               an optional {@code --memory-budget <megabytes>} to load into
+	 *               a SpillingPatternCallRepository and the optional default
+	 *               limits {@code --limit <maxResults>} and
+	 *               {@code --timeout <milliseconds>}, and an optional
+	 *               {@code --parse-policy strict|skip|quarantine}
+	 * @param warmUp true to also warm up the query paths of the loaded kind of
+	 *               repository
+	 * @param timing true to report the load time and when the server was ready
+	 * @return false if the arguments are invalid or the file could not be loaded
+	 * @throws IOException if the file cannot be read or the server cannot start
+	 */
+	private static boolean serve(List<String> args, boolean warmUp, boolean timing) throws IOException {
+		QueryOptions defaults;
+		MemoryBudget budget;
+		String policyName;
+		try {
+			defaults = queryOptions(args);
+			budget = memoryBudget(args);
+			policyName = option(args, "--parse-policy");
+		} catch (IllegalArgumentException e) {
+			System.err.println("Invalid option: " + e.getMessage());
+			return false;
+		}
+		if (args.size() < 2) {
+			System.err.println("Usage: serve <file> [port] [--memory-budget <megabytes>] [--limit <maxResults>]"
+					+ " [--timeout <milliseconds>] [--parse-policy strict|skip|quarantine]");
+			return false;
+		}
+		int port = args.size() > 2 ? port(args.get(2)) : 8080;
+		if (port < 0) {
+			System.err.println("Invalid port: " + args.get(2));
+			return false;
+		}
+		ParsePolicy policy = parsePolicy(policyName, args.get(1));
+		if (policy == null) {
+			System.err.println("Invalid parse policy: " + policyName);
+			return false;
+		}
+
+		long loadStart = System.nanoTime();
+		PatternCallStore repository = budget == null ? new PatternCallRepository()
+				: new SpillingPatternCallRepository(budget);
+		try {
+			if (!printErrors(repository.readFromFile(args.get(1), policy))) {
+				close(repository);
+				return false;
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println("Cannot load " + args.get(1) + ": " + e.getMessage());
+			close(repository);
+			return false;
+		} catch (IOException | RuntimeException e) {
+			close(repository);
+			throw e;
+		}
+		if (timing) {
+			System.err.println("Loaded " + args.get(1) + " in "
+					+ Duration.ofNanos(System.nanoTime() - loadStart).toMillis() + " ms");
+		}
+
+		if (warmUp) {
+			warmUp(budget, timing);
+		}
+
+		PatternCallQueryServer server = new PatternCallQueryServer(new PatternCallQueryService(repository),
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), port), defaults);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			server.stop();
+			try {
+				close(repository);
+			} catch (IOException e) {
+				System.err.println("Cannot delete spilled segments: " + e.getMessage());
+			}
+		}));
+		server.start();
+		System.out.println("Serving " + repository.getPatternCallCount() + " pattern calls on port "
+				+ server.getPort());
+		if (timing) {
+			reportUptime("Time to ready");
+		}
+		return true;
+	}
+
+	/**
+	 * Loads the file or directory named in the arguments and runs the queries
+	 * read from the queries file, or standard input, writing the matches to
+	 * standard output.
+	 *
+	 * @param args   {@code query <file-or-directory> [queries-file]} with an
+	 *               optional {@code --format csv|json}, CSV by default, an
+	 *               optional {@code --memory-budget <megabytes>} to load into a
+	 *               SpillingPatternCallRepository, and the optional default
+	 *               limits {@code --limit <maxResults>} and
+	 *               {@code --timeout <milliseconds>}, and an optional
+	 *               {@code --parse-policy strict|skip|quarantine}
+	 * @param warmUp true to also warm up the query paths of the loaded kind of
+	 *               repository
+	 * @param timing true to report the load time, the time to the first result
+	 *               and the query time
+	 * @return false if the arguments are invalid or a file could not be loaded,
+	 *         in which case no query is run
+	 * @throws IOException if a file cannot be read
+	 */
+	private static boolean query(List<String> args, boolean warmUp, boolean timing) throws IOException {
+		PatternCallBatchRunner.Format format;
+		MemoryBudget budget;
+		QueryOptions defaults;
+		String policyName;
+		try {
+			defaults = queryOptions(args);
+			String formatName = option(args, "--format");
+			format = formatName == null ? PatternCallBatchRunner.Format.CSV
+					: PatternCallBatchRunner.Format.valueOf(formatName.toUpperCase());
+			budget = memoryBudget(args);
+			policyName = option(args, "--parse-policy");
+		} catch (IllegalArgumentException e) {
+			System.err.println("Invalid option: " + e.getMessage());
+			return false;
+		}
+		if (args.size() < 2) {
+			System.err.println("Usage: query <file-or-directory> [queries-file] [--format csv|json]"
+					+ " [--memory-budget <megabytes>] [--limit <maxResults>] [--timeout <milliseconds>]"
+					+ " [--parse-policy strict|skip|quarantine]");
+			return false;
+		}
+		ParsePolicy policy = parsePolicy(policyName, args.get(1));
+		if (policy == null) {
+			System.err.println("Invalid parse policy: " + policyName);
+			return false;
+		}
+
+		long loadStart = System.nanoTime();
+		PatternCallStore repository = budget == null ? new PatternCallRepository()
+				: new SpillingPatternCallRepository(budget);
+		try {
+			PatternCallLoadReport report;
+			try {
+				report = Files.isDirectory(Path.of(args.get(1))) ? repository.readFromDirectory(args.get(1), policy)
+						: repository.readFromFile(args.get(1), policy);
+			} catch (IllegalArgumentException e) {
+				System.err.println("Cannot load " + args.get(1) + ": " + e.getMessage());
+				return false;
+			}
+			if (!printErrors(report)) {
+				return false;
+			}
+			if (timing) {
+				System.err.println("Loaded " + args.get(1) + " in "
+						+ Duration.ofNanos(System.nanoTime() - loadStart).toMillis() + " ms");
+			}
+			if (warmUp) {
+				warmUp(budget, timing);
+			}
+			long queryStart = System.nanoTime();
+
+			PatternCallBatchRunner runner = new PatternCallBatchRunner(new PatternCallQueryService(repository),
+					format, Runtime.getRuntime().availableProcessors(), 1024, defaults);
+			Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+			Runnable firstResult = timing ? () -> reportUptime("Time to first result") : null;
+			int count;
+			if (args.size() > 2) {
+				try (BufferedReader in = Files.newBufferedReader(Path.of(args.get(2)))) {
+					count = runner.run(in, out, firstResult);
+				}
+			} else {
+				count = runner.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+						out, firstResult);
+			}
+			if (timing) {
+				System.err.println("Ran " + count + " queries in "
+						+ Duration.ofNanos(System.nanoTime() - queryStart).toMillis() + " ms");
+			}
+			return true;
+		} finally {
+			close(repository);
+		}
+	}
+
+	/**
+	 * Runs the query passes of a PatternCallWarmUp for the kind of repository
+	 * loaded, on a private repository that leaves the loaded one untouched.
+	 */
+	private static void warmUp(MemoryBudget budget, boolean timing) throws IOException {
+		Duration warmUpTime = new PatternCallWarmUp().run(budget);
+		if (timing) {
+			System.err.println("Warm-up of the query paths took " + warmUpTime.toMillis() + " ms");
+		}
+	}
+
+	/**
+	 * Parses a port number for the server.
+	 *
+	 * @return the port, or -1 if the value is not a number between 0 and 65535
+	 */
+	private static int port(String value) {
+		try {
+			int port = Integer.parseInt(value);
+			return port <= 65535 ? port : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the ParsePolicy named by {@code --parse-policy}, strict if the
+	 * option is not given. The quarantine policy writes the rejected lines next
+	 * to the input, to {@code <input>.rejected}.
+	 *
+	 * @return the policy, or null if the name is unknown
+	 */
+	private static ParsePolicy parsePolicy(String name, String input) {
+		if (name == null || name.equals("strict")) {
+			return ParsePolicy.strict();
+		}
+		if (name.equals("skip")) {
+			return ParsePolicy.skip();
+		}
+		if (name.equals("quarantine")) {
+			Path path = Path.of(input).toAbsolutePath().normalize();
+			return ParsePolicy.quarantine(path.resolveSibling(path.getFileName() + ".rejected"));
+		}
+		return null;
+	}
+
+	/**
+	 * Prints the failed files and rejected lines of a load to standard error.
+	 *
+	 * @return false if a file failed to load
+	 */
+	private static boolean printErrors(PatternCallLoadReport report) {
+		for (PatternCallLoadReport.LoadError error : report.getErrors()) {
+			System.err.println(error);
+		}
+		long unlisted = report.getFilesFailed() + report.getLinesRejected() - report.getErrors().size();
+		if (unlisted > 0) {
+			System.err.println("... and " + unlisted + " more errors");
+		}
+		if (report.getLinesRejected() > 0) {
+			System.err.println("Rejected lines: " + report.getLinesRejected());
+		}
+		if (report.getFilesFailed() > 0) {
+			System.err.println("Failed files: " + report.getFilesFailed() + ", none of their records were added");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the {@code --memory-budget} option from the arguments and returns
+	 * the budget it describes.
+	 *
+	 * @return the memory budget, or null if the option is not given
+	 * @throws IllegalArgumentException if the value is missing or invalid
+	 */
+	private static MemoryBudget memoryBudget(List<String> args) {
+		String megabytes = option(args, "--memory-budget");
+		return megabytes == null ? null : MemoryBudget.ofMegabytes(Long.parseLong(megabytes));
+	}
+
+	/**
+	 * Closes the repository if it holds resources, i.e. spilled segment files.
+	 */
+	private static void close(PatternCallStore repository) throws IOException {
+		if (repository instanceof SpillingPatternCallRepository) {
+			((SpillingPatternCallRepository) repository).close();
+		}
+	}
+
+	/**
+	 * Removes the {@code --limit} and {@code --timeout} options from the
+	 * arguments and returns the query options they describe.
+	 *
+	 * @throws IllegalArgumentException if a value is missing or invalid
+	 */
+	private static QueryOptions queryOptions(List<String> args) {
+		QueryOptions options = QueryOptions.unbounded();
+		String limit = option(args, "--limit");
+		if (limit != null) {
+			options = options.withMaxResults(Integer.parseInt(limit));
+		}
+		String timeout = option(args, "--timeout");
+		if (timeout != null) {
+			options = options.withTimeout(Duration.ofMillis(Long.parseLong(timeout)));
+		}
+		return options;
+	}
+
+	/**
+	 * Removes an option and its value from the arguments.
+	 *
+	 * @return the value of the option, or null if it is not given
+	 * @throws IllegalArgumentException if the option has no value
+	 */
+	private static String option(List<String> args, String name) {
+		int index = args.indexOf(name);
+		if (index < 0) {
+			return null;
+		}
+		if (index + 1 >= args.size()) {
+			throw new IllegalArgumentException("Missing value for " + name);
+		}
+		String value = args.get(index + 1);
+		args.subList(index, index + 2).clear();
+		return value;
+	}
+
+	/**
+	 * Reports on standard error how long after JVM start a milestone, such as
+	 * the first result or the server being ready, was reached. Compare runs with
+	 * and without {@code -XX:SharedArchiveFile} to measure the cold start.
+	 */
+	private static void reportUptime(String milestone) {
+		System.err.println(milestone + ": " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms after JVM start");
+	}
 }
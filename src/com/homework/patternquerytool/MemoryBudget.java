@@ -0,0 +1,120 @@
+package com.homework.patternquerytool;
+
+import java.nio.file.Path;
+
+/**
+ * This class describes how much heap a SpillingPatternCallRepository may use
+ * for its records and where it spills the rest.
+ *
+ * <p>
+ * Records are kept in segments of {@link #getSegmentSize()} records, each with
+ * its own posting lists by name and path. Once the estimated size of the
+ * segments held in memory exceeds {@link #getMaxBytes()}, the least recently
+ * used segments are written to segment files in {@link #getSpillDirectory()}
+ * and read back into a heap buffer when they are accessed again. The
+ * id directory, the sorted id index and the per-segment key filters stay in
+ * memory outside the budget, taking about 21 to 35 bytes per record: 11 to 21
+ * for the two int arrays of the id directory, which are kept between 3/8 and
+ * 3/4 full, 8 to 12 for the sorted ids and their rank counts, and 2 for the
+ * name and path filters of 8 bits each.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class MemoryBudget {
+
+	private static final int DEFAULT_SEGMENT_SIZE = 4096;
+
+	private final long maxBytes;
+	private final Path spillDirectory;
+	private final int segmentSize;
+
+	private MemoryBudget(long maxBytes, Path spillDirectory, int segmentSize) {
+		this.maxBytes = maxBytes;
+		this.spillDirectory = spillDirectory;
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Returns a budget of the given number of bytes, spilling to a temporary
+	 * directory in segments of 4096 records.
+	 *
+	 * @param maxBytes the estimated heap the records may take
+	 * @return the budget
+	 */
+	public static MemoryBudget ofBytes(long maxBytes) {
+		if (maxBytes < 1) {
+			throw new IllegalArgumentException("Memory budget must be positive");
+		}
+		return new MemoryBudget(maxBytes, null, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Returns a budget of the given number of megabytes, spilling to a temporary
+	 * directory in segments of 4096 records.
+	 *
+	 * @param maxMegabytes the estimated heap the records may take, in megabytes
+	 * @return the budget
+	 */
+	public static MemoryBudget ofMegabytes(long maxMegabytes) {
+		if (maxMegabytes < 1 || maxMegabytes > Long.MAX_VALUE >> 20) {
+			throw new IllegalArgumentException("Invalid memory budget: " + maxMegabytes + " MB");
+		}
+		return ofBytes(maxMegabytes << 20);
+	}
+
+	/**
+	 * Returns a copy of this budget spilling to the given directory, which is
+	 * created if needed.
+	 *
+	 * @param spillDirectory the directory for the segment files
+	 * @return the adjusted budget
+	 */
+	public MemoryBudget withSpillDirectory(Path spillDirectory) {
+		if (spillDirectory == null) {
+			throw new IllegalArgumentException("Spill directory cannot be null");
+		}
+		return new MemoryBudget(maxBytes, spillDirectory, segmentSize);
+	}
+
+	/**
+	 * Returns a copy of this budget with the given number of records per
+	 * segment. Smaller segments page in faster, larger ones need fewer files.
+	 *
+	 * @param segmentSize the number of records per segment
+	 * @return the adjusted budget
+	 */
+	public MemoryBudget withSegmentSize(int segmentSize) {
+		if (segmentSize < 1) {
+			throw new IllegalArgumentException("Segment size must be positive");
+		}
+		return new MemoryBudget(maxBytes, spillDirectory, segmentSize);
+	}
+
+	/**
+	 * Gets the estimated heap the records in memory may take.
+	 *
+	 * @return the budget in bytes
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Gets the directory segments are spilled to.
+	 *
+	 * @return the spill directory, or null for a new temporary directory
+	 */
+	public Path getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	/**
+	 * Gets the number of records per segment.
+	 *
+	 * @return the segment size
+	 */
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+}
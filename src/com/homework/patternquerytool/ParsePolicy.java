@@ -0,0 +1,120 @@
+package com.homework.patternquerytool;
+
+import java.nio.file.Path;
+
+/**
+ * This class describes how invalid lines are handled when pattern call files
+ * are read into a PatternCallStore.
+ *
+ * <ul>
+ * <li>{@link #strict()} aborts on the first invalid line, which is the
+ * behaviour of {@link PatternCallStore#readFromFile(String)}. Lines with
+ * too few fields are skipped silently as before.</li>
+ * <li>{@link #skip()} skips every invalid line, counts it and records it in the
+ * PatternCallLoadReport, then continues with the next line.</li>
+ * <li>{@link #quarantine(Path)} behaves like skip and additionally writes the
+ * rejected lines unchanged to a reject file, so they can be fixed and
+ * reloaded.</li>
+ * </ul>
+ *
+ * <p>
+ * The report keeps at most {@link #getMaxErrors()} error entries; rejected
+ * lines beyond that are still counted.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class ParsePolicy {
+
+	/**
+	 * The ways an invalid line can be handled.
+	 */
+	public enum Mode {
+		STRICT, SKIP, QUARANTINE
+	}
+
+	private static final int DEFAULT_MAX_ERRORS = 100;
+
+	private final Mode mode;
+	private final Path rejectFile;
+	private final int maxErrors;
+
+	private ParsePolicy(Mode mode, Path rejectFile, int maxErrors) {
+		this.mode = mode;
+		this.rejectFile = rejectFile;
+		this.maxErrors = maxErrors;
+	}
+
+	/**
+	 * Returns a policy that aborts on the first invalid line.
+	 *
+	 * @return the strict policy
+	 */
+	public static ParsePolicy strict() {
+		return new ParsePolicy(Mode.STRICT, null, DEFAULT_MAX_ERRORS);
+	}
+
+	/**
+	 * Returns a policy that skips and counts invalid lines.
+	 *
+	 * @return the skip policy
+	 */
+	public static ParsePolicy skip() {
+		return new ParsePolicy(Mode.SKIP, null, DEFAULT_MAX_ERRORS);
+	}
+
+	/**
+	 * Returns a policy that skips invalid lines and writes them to the given
+	 * reject file, replacing any existing content.
+	 *
+	 * @param rejectFile the file to write rejected lines to
+	 * @return the quarantine policy
+	 */
+	public static ParsePolicy quarantine(Path rejectFile) {
+		if (rejectFile == null) {
+			throw new IllegalArgumentException("Reject file cannot be null");
+		}
+		return new ParsePolicy(Mode.QUARANTINE, rejectFile, DEFAULT_MAX_ERRORS);
+	}
+
+	/**
+	 * Returns a copy of this policy that keeps at most the given number of error
+	 * entries in the report.
+	 *
+	 * @param maxErrors the maximum number of reported errors
+	 * @return the adjusted policy
+	 */
+	public ParsePolicy withMaxErrors(int maxErrors) {
+		if (maxErrors < 0) {
+			throw new IllegalArgumentException("Max errors cannot be negative");
+		}
+		return new ParsePolicy(mode, rejectFile, maxErrors);
+	}
+
+	/**
+	 * Gets how invalid lines are handled.
+	 *
+	 * @return the mode
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Gets the file rejected lines are written to.
+	 *
+	 * @return the reject file, or null unless the mode is QUARANTINE
+	 */
+	public Path getRejectFile() {
+		return rejectFile;
+	}
+
+	/**
+	 * Gets the maximum number of error entries kept in the report.
+	 *
+	 * @return the maximum number of reported errors
+	 */
+	public int getMaxErrors() {
+		return maxErrors;
+	}
+}
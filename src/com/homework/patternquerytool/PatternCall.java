@@ -64,6 +64,16 @@ public class PatternCall {
 		return called;
 	}
 
+	/**
+	 * Returns the pattern call in the comma-separated record format used by the
+	 * repository files, e.g. {@code 42,myPattern,src/patterns/Functional.pat,false}.
+	 *
+	 * @return the record line for this pattern call
+	 */
+	public String toRecordLine() {
+		return id + "," + name + "," + patternFile + "," + called;
+	}
+
 	/**
 	 * Returns a string with the details of the pattern call.
 	 *
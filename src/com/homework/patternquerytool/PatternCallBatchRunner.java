@@ -0,0 +1,303 @@
+package com.homework.patternquerytool;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a stream of queries in their one-line text form (see
+ * {@link PatternCallQuery}) against a PatternCallQueryService and streams the
+ * matches out as CSV or JSON lines.
+ *
+ * <p>
+ * Queries are read in batches; the queries of a batch run in parallel on a
+ * fixed thread pool, and their results are written in input order before the
+ * next batch is read. Memory use therefore does not grow with the length of
+ * the input, but a batch holds the output rows of up to batch size queries at
+ * once, so it is bounded by the batch size times the largest result of a
+ * query. With the default unbounded QueryOptions a single query may return
+ * the whole store; set a result limit to bound it. Each match becomes one
+ * output row tagged with the query that found it. A query without matches produces no rows; an invalid query line
+ * produces a single row carrying the error message and does not stop the run.
+ * </p>
+ *
+ * <p>
+ * Queries run within the runner's default QueryOptions unless a query line
+ * sets its own {@code limit=} or {@code timeout=}. A query stopped by a limit
+ * adds a row carrying its status after the matches collected so far. If
+ * writing the results fails, the queries still running are cancelled.
+ * </p>
+ *
+ * <p>
+ * The repository may be changed while a batch runs. Each query runs under the
+ * repository's read lock and sees a consistent state, but two queries of the
+ * same batch may see different states if a change lands between them.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallBatchRunner {
+
+	/**
+	 * The output formats of the runner.
+	 */
+	public enum Format {
+		/**
+		 * Comma-separated values with the header
+		 * {@code query,id,name,patternFile,called,error}. The error column holds
+		 * the message of an invalid query or the status of a query stopped by a
+		 * limit, e.g. {@code TRUNCATED}.
+		 */
+		CSV,
+		/**
+		 * One JSON object per line, with the fields {@code query}, {@code id},
+		 * {@code name}, {@code patternFile} and {@code called}, or {@code query} and
+		 * {@code error} for an invalid query, or {@code query} and {@code status}
+		 * for a query stopped by a limit.
+		 */
+		JSON
+	}
+
+	private final PatternCallQueryService queryService;
+	private final Format format;
+	private final int parallelism;
+	private final int batchSize;
+	private final QueryOptions defaults;
+
+	/**
+	 * Creates a runner using one thread per available processor and batches of
+	 * 1024 queries.
+	 *
+	 * @param queryService the service to run the queries against
+	 * @param format       the output format
+	 */
+	public PatternCallBatchRunner(PatternCallQueryService queryService, Format format) {
+		this(queryService, format, Runtime.getRuntime().availableProcessors(), 1024);
+	}
+
+	/**
+	 * Creates a runner with the given number of threads and batch size.
+	 *
+	 * @param queryService the service to run the queries against
+	 * @param format       the output format
+	 * @param parallelism  the number of queries run at the same time
+	 * @param batchSize    the number of queries read before their results are
+	 *                     written
+	 */
+	public PatternCallBatchRunner(PatternCallQueryService queryService, Format format, int parallelism,
+			int batchSize) {
+		this(queryService, format, parallelism, batchSize, QueryOptions.unbounded());
+	}
+
+	/**
+	 * Creates a runner with the given number of threads and batch size, running
+	 * every query within the given limits unless its line sets its own.
+	 *
+	 * @param queryService the service to run the queries against
+	 * @param format       the output format
+	 * @param parallelism  the number of queries run at the same time
+	 * @param batchSize    the number of queries read before their results are
+	 *                     written
+	 * @param defaults     the limits of queries that do not set their own
+	 */
+	public PatternCallBatchRunner(PatternCallQueryService queryService, Format format, int parallelism,
+			int batchSize, QueryOptions defaults) {
+		if (queryService == null || format == null || defaults == null) {
+			throw new IllegalArgumentException("Query service, format and default options cannot be null");
+		}
+		if (parallelism < 1 || batchSize < 1) {
+			throw new IllegalArgumentException("Parallelism and batch size must be positive");
+		}
+		this.queryService = queryService;
+		this.format = format;
+		this.parallelism = parallelism;
+		this.batchSize = batchSize;
+		this.defaults = defaults;
+	}
+
+	/**
+	 * Runs every query read from the input and writes the matches to the output.
+	 * Blank lines and lines starting with {@code #} are ignored.
+	 *
+	 * @param in  the query lines
+	 * @param out the destination of the results, flushed after every batch
+	 * @return the number of queries run, including invalid ones
+	 * @throws IOException if reading the queries or writing the results fails
+	 */
+	public int run(BufferedReader in, Writer out) throws IOException {
+		return run(in, out, null);
+	}
+
+	/**
+	 * Runs every query read from the input and writes the matches to the output,
+	 * notifying the caller once the rows of the first query are written. Blank
+	 * lines and lines starting with {@code #} are ignored.
+	 *
+	 * @param in          the query lines
+	 * @param out         the destination of the results, flushed after every
+	 *                    batch
+	 * @param firstResult run once after the rows of the first query are written
+	 *                    and flushed, or null
+	 * @return the number of queries run, including invalid ones
+	 * @throws IOException if reading the queries or writing the results fails
+	 */
+	public int run(BufferedReader in, Writer out, Runnable firstResult) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "pattern-call-batch");
+			thread.setDaemon(true);
+			return thread;
+		});
+		CancellationToken token = new CancellationToken();
+		QueryOptions options = defaults.withCancellationToken(token);
+		boolean finished = false;
+		try {
+			if (format == Format.CSV) {
+				out.write("query,id,name,patternFile,called,error\n");
+			}
+			int count = 0;
+			List<String> batch = new ArrayList<>(batchSize);
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.isBlank() || line.startsWith("#")) {
+					continue;
+				}
+				batch.add(line.trim());
+				if (batch.size() == batchSize) {
+					count += runBatch(batch, options, executor, out, count == 0 ? firstResult : null);
+					batch.clear();
+				}
+			}
+			count += runBatch(batch, options, executor, out, count == 0 ? firstResult : null);
+			finished = true;
+			return count;
+		} finally {
+			if (!finished) {
+				token.cancel(); // Stop the queries still running for the failed output
+			}
+			executor.shutdownNow();
+		}
+	}
+
+	private int runBatch(List<String> batch, QueryOptions options, ExecutorService executor, Writer out,
+			Runnable firstResult) throws IOException {
+		List<Future<String>> results = new ArrayList<>(batch.size());
+		for (String line : batch) {
+			results.add(executor.submit(() -> format(line, options)));
+		}
+		for (Future<String> result : results) {
+			try {
+				out.write(result.get());
+				if (firstResult != null) {
+					out.flush();
+					firstResult.run();
+					firstResult = null;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while running queries", e);
+			} catch (ExecutionException e) {
+				throw new IOException("Query failed", e.getCause());
+			}
+		}
+		out.flush();
+		return batch.size();
+	}
+
+	/**
+	 * Runs one query line and returns its output rows.
+	 */
+	private String format(String line, QueryOptions options) {
+		StringBuilder rows = new StringBuilder();
+		QueryResult result;
+		try {
+			result = PatternCallQuery.parse(line).execute(queryService, options);
+		} catch (IllegalArgumentException e) {
+			if (format == Format.CSV) {
+				rows.append(csv(line)).append(",,,,,").append(csv(e.getMessage())).append('\n');
+			} else {
+				rows.append("{\"query\":").append(json(line)).append(",\"error\":").append(json(e.getMessage()))
+						.append("}\n");
+			}
+			return rows.toString();
+		}
+
+		for (PatternCall patternCall : result.getPatternCalls()) {
+			if (format == Format.CSV) {
+				rows.append(csv(line)).append(',').append(patternCall.getId()).append(',')
+						.append(csv(patternCall.getName())).append(',').append(csv(patternCall.getPatternFile()))
+						.append(',').append(patternCall.isCalled()).append(",\n");
+			} else {
+				rows.append("{\"query\":").append(json(line)).append(",\"id\":").append(patternCall.getId())
+						.append(",\"name\":").append(json(patternCall.getName())).append(",\"patternFile\":")
+						.append(json(patternCall.getPatternFile())).append(",\"called\":")
+						.append(patternCall.isCalled()).append("}\n");
+			}
+		}
+		if (!result.isComplete()) {
+			if (format == Format.CSV) {
+				rows.append(csv(line)).append(",,,,,").append(result.getStatus()).append('\n');
+			} else {
+				rows.append("{\"query\":").append(json(line)).append(",\"status\":")
+						.append(json(result.getStatus().name())).append("}\n");
+			}
+		}
+		return rows.toString();
+	}
+
+	/**
+	 * Quotes a CSV field if it contains a separator, quote or line break.
+	 */
+	static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Returns the value as a JSON string literal, or {@code null}.
+	 */
+	static String json(String value) {
+		if (value == null) {
+			return "null";
+		}
+		StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				quoted.append("\\\"");
+				break;
+			case '\\':
+				quoted.append("\\\\");
+				break;
+			case '\n':
+				quoted.append("\\n");
+				break;
+			case '\r':
+				quoted.append("\\r");
+				break;
+			case '\t':
+				quoted.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					quoted.append(String.format("\\u%04x", (int) c));
+				} else {
+					quoted.append(c);
+				}
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
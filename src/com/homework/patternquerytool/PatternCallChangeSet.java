@@ -0,0 +1,108 @@
+package com.homework.patternquerytool;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds the changes between two generations of a
+ * PatternCallStore, as computed by {@link PatternCallDiff}: the pattern
+ * calls that were added, the IDs that were removed and the new versions of the
+ * pattern calls whose name, file path or called flag changed.
+ *
+ * <p>
+ * All three parts are in ascending ID order. A change set can be applied to a
+ * repository holding the old generation to bring it to the new one without
+ * reloading it.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallChangeSet {
+
+	private final List<PatternCall> added;
+	private final int[] removedIds;
+	private final List<PatternCall> changed;
+
+	/**
+	 * Constructs a PatternCallChangeSet from its parts.
+	 *
+	 * @param added      the pattern calls only present in the new generation
+	 * @param removedIds the IDs only present in the old generation
+	 * @param changed    the new versions of pattern calls that differ between the
+	 *                   generations
+	 */
+	public PatternCallChangeSet(List<PatternCall> added, int[] removedIds, List<PatternCall> changed) {
+		this.added = Collections.unmodifiableList(added);
+		this.removedIds = removedIds.clone();
+		this.changed = Collections.unmodifiableList(changed);
+	}
+
+	/**
+	 * Gets the pattern calls that were added.
+	 *
+	 * @return the added pattern calls in ID order
+	 */
+	public List<PatternCall> getAdded() {
+		return added;
+	}
+
+	/**
+	 * Gets the IDs of the pattern calls that were removed.
+	 *
+	 * @return a copy of the removed IDs in ascending order
+	 */
+	public int[] getRemovedIds() {
+		return removedIds.clone();
+	}
+
+	/**
+	 * Gets the new versions of the pattern calls that changed, e.g. flipped
+	 * between called and skipped.
+	 *
+	 * @return the changed pattern calls in ID order
+	 */
+	public List<PatternCall> getChanged() {
+		return changed;
+	}
+
+	/**
+	 * Applies the changes to the given repository: removes the removed IDs,
+	 * replaces the changed pattern calls and adds the added ones, all in one
+	 * change, see {@link PatternCallStore#applyChanges(PatternCallChangeSet)}.
+	 *
+	 * @param repository the repository to update, normally holding the old
+	 *                   generation
+	 */
+	public void applyTo(PatternCallStore repository) {
+		repository.applyChanges(this);
+	}
+
+	/**
+	 * Gets the total number of changes.
+	 *
+	 * @return the number of added, removed and changed pattern calls
+	 */
+	public int size() {
+		return added.size() + removedIds.length + changed.size();
+	}
+
+	/**
+	 * Checks whether the two generations were identical.
+	 *
+	 * @return true if there are no changes
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns a summary of the change set.
+	 *
+	 * @return a string with the number of each kind of change
+	 */
+	@Override
+	public String toString() {
+		return "PatternCallChangeSet{" + "added=" + added.size() + ", removed=" + removedIds.length + ", changed="
+				+ changed.size() + '}';
+	}
+}
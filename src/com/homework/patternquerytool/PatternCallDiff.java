@@ -0,0 +1,162 @@
+package com.homework.patternquerytool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the PatternCallChangeSet between two generations of a
+ * PatternCallStore, e.g. the repository loaded from yesterday's dump and
+ * the one loaded from today's.
+ *
+ * <p>
+ * Both generations are read in ID order from their sorted ID index, which the
+ * repositories keep in order as they change, and merge-joined, so the diff
+ * costs O(n) without sorting either generation. The ID range is cut into
+ * partitions at the same keys in both generations and the partitions are
+ * joined in parallel; their results are concatenated in order, so the change
+ * set is identical to a sequential join.
+ * </p>
+ *
+ * <p>
+ * Both generations are copied onto the heap in full for the join, so diffing
+ * SpillingPatternCallRepositories needs room for both of them outside their
+ * memory budgets.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallDiff {
+
+	private static final int DEFAULT_PARTITION_SIZE = 1 << 14;
+
+	private final int partitionSize;
+
+	/**
+	 * Creates a diff engine with the default partition size.
+	 */
+	public PatternCallDiff() {
+		this(DEFAULT_PARTITION_SIZE);
+	}
+
+	/**
+	 * Creates a diff engine that joins roughly the given number of pattern calls
+	 * per parallel partition.
+	 *
+	 * @param partitionSize the number of pattern calls per partition
+	 */
+	public PatternCallDiff(int partitionSize) {
+		if (partitionSize < 1) {
+			throw new IllegalArgumentException("Partition size must be positive");
+		}
+		this.partitionSize = partitionSize;
+	}
+
+	/**
+	 * Computes the changes that turn the old generation into the new one.
+	 *
+	 * @param oldRepository the previous generation
+	 * @param newRepository the current generation
+	 * @return the added, removed and changed pattern calls
+	 */
+	public PatternCallChangeSet compute(PatternCallStore oldRepository, PatternCallStore newRepository) {
+		PatternCall[] oldCalls = sortedById(oldRepository);
+		PatternCall[] newCalls = sortedById(newRepository);
+		int[] oldIds = ids(oldCalls);
+		int[] newIds = ids(newCalls);
+
+		// Split keys are taken from the larger generation and located in both
+		int[] splitSource = oldIds.length >= newIds.length ? oldIds : newIds;
+		int partitions = Math.max(1, (splitSource.length + partitionSize - 1) / partitionSize);
+		int[] oldBounds = new int[partitions + 1];
+		int[] newBounds = new int[partitions + 1];
+		for (int p = 1; p < partitions; p++) {
+			int splitKey = splitSource[(int) ((long) p * splitSource.length / partitions)];
+			oldBounds[p] = SortedIdIndex.lowerBound(oldIds, 0, oldIds.length, splitKey);
+			newBounds[p] = SortedIdIndex.lowerBound(newIds, 0, newIds.length, splitKey);
+		}
+		oldBounds[partitions] = oldIds.length;
+		newBounds[partitions] = newIds.length;
+
+		List<Partition> results = IntStream.range(0, partitions).parallel()
+				.mapToObj(p -> join(oldCalls, oldBounds[p], oldBounds[p + 1], newCalls, newBounds[p], newBounds[p + 1]))
+				.collect(Collectors.toList());
+
+		List<PatternCall> added = new ArrayList<>();
+		List<PatternCall> changed = new ArrayList<>();
+		int removedCount = 0;
+		for (Partition partition : results) {
+			added.addAll(partition.added);
+			changed.addAll(partition.changed);
+			removedCount += partition.removedCount;
+		}
+		int[] removedIds = new int[removedCount];
+		int offset = 0;
+		for (Partition partition : results) {
+			System.arraycopy(partition.removedIds, 0, removedIds, offset, partition.removedCount);
+			offset += partition.removedCount;
+		}
+		return new PatternCallChangeSet(added, removedIds, changed);
+	}
+
+	private static Partition join(PatternCall[] oldCalls, int oldFrom, int oldTo, PatternCall[] newCalls, int newFrom,
+			int newTo) {
+		Partition partition = new Partition(oldTo - oldFrom);
+		int i = oldFrom;
+		int j = newFrom;
+		while (i < oldTo && j < newTo) {
+			int oldId = oldCalls[i].getId();
+			int newId = newCalls[j].getId();
+			if (oldId < newId) {
+				partition.removedIds[partition.removedCount++] = oldId;
+				i++;
+			} else if (oldId > newId) {
+				partition.added.add(newCalls[j]);
+				j++;
+			} else {
+				if (!sameContent(oldCalls[i], newCalls[j])) {
+					partition.changed.add(newCalls[j]);
+				}
+				i++;
+				j++;
+			}
+		}
+		while (i < oldTo) {
+			partition.removedIds[partition.removedCount++] = oldCalls[i++].getId();
+		}
+		while (j < newTo) {
+			partition.added.add(newCalls[j++]);
+		}
+		return partition;
+	}
+
+	private static boolean sameContent(PatternCall a, PatternCall b) {
+		return a.isCalled() == b.isCalled() && Objects.equals(a.getName(), b.getName())
+				&& Objects.equals(a.getPatternFile(), b.getPatternFile());
+	}
+
+	private static PatternCall[] sortedById(PatternCallStore repository) {
+		return repository.getPatternCallsSortedById().toArray(new PatternCall[0]);
+	}
+
+	private static int[] ids(PatternCall[] calls) {
+		int[] ids = new int[calls.length];
+		for (int i = 0; i < calls.length; i++) {
+			ids[i] = calls[i].getId();
+		}
+		return ids;
+	}
+
+	private static class Partition {
+		private final List<PatternCall> added = new ArrayList<>();
+		private final List<PatternCall> changed = new ArrayList<>();
+		private final int[] removedIds;
+		private int removedCount;
+
+		private Partition(int maxRemoved) {
+			this.removedIds = new int[maxRemoved];
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package com.homework.patternquerytool;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loads every pattern call file below a directory into a PatternCallStore.
+ *
+ * <p>
+ * Files are opened and parsed concurrently on a thread pool, which hides the
+ * per-file open/read latency when there are many small files. Parsed files are
+ * handed to the calling thread through a bounded queue in path order and
+ * added to the repository there, one
+ * {@link PatternCallStore#addPatternCalls(Collection)} call per file,
+ * so duplicate IDs resolve to the first occurrence in path order no matter
+ * which file finished parsing first, and queries running during the load see
+ * whole files appear one after the other. A file
+ * that cannot be read, or under the strict ParsePolicy contains an invalid
+ * line, is recorded in the PatternCallLoadReport and none of its records are
+ * added; the remaining files are still loaded. Under the skip and quarantine
+ * policies only the invalid lines are left out, and they are reported and
+ * quarantined in path and line order.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallDirectoryLoader {
+
+	private final int parallelism;
+	private final int queueCapacity;
+
+	/**
+	 * Creates a loader sized for I/O bound parsing on this machine.
+	 */
+	public PatternCallDirectoryLoader() {
+		this(Math.max(4, Runtime.getRuntime().availableProcessors() * 2), 64);
+	}
+
+	/**
+	 * Creates a loader with the given number of parser threads and the given
+	 * limit on parsed files waiting to be added to the repository.
+	 *
+	 * @param parallelism   the number of files parsed concurrently
+	 * @param queueCapacity the maximum number of files queued ahead of the
+	 *                      repository
+	 */
+	public PatternCallDirectoryLoader(int parallelism, int queueCapacity) {
+		if (parallelism < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("Parallelism and queue capacity must be positive");
+		}
+		this.parallelism = parallelism;
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Reads all regular files below the given directory into the repository,
+	 * using the strict ParsePolicy.
+	 *
+	 * @param directory  the directory to walk
+	 * @param repository the repository to add the pattern calls to
+	 * @return the report of the load
+	 * @throws IOException if the directory cannot be traversed
+	 */
+	public PatternCallLoadReport load(Path directory, PatternCallStore repository) throws IOException {
+		return load(directory, repository, ParsePolicy.strict());
+	}
+
+	/**
+	 * Reads all regular files below the given directory into the repository,
+	 * handling invalid lines according to the given policy.
+	 *
+	 * @param directory  the directory to walk
+	 * @param repository the repository to add the pattern calls to
+	 * @param policy     how invalid lines are handled
+	 * @return the report of the load
+	 * @throws IOException if the directory cannot be traversed or the reject
+	 *                     file cannot be written
+	 */
+	public PatternCallLoadReport load(Path directory, PatternCallStore repository, ParsePolicy policy)
+			throws IOException {
+		List<Path> files;
+		try (Stream<Path> paths = Files.walk(directory)) {
+			files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+
+		PatternCallLoadReport report = new PatternCallLoadReport(policy.getMaxErrors());
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		BlockingQueue<Future<ParsedFile>> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+		// Submits files in path order, blocking while the queue is full
+		Thread producer = new Thread(() -> {
+			try {
+				for (Path file : files) {
+					queue.put(executor.submit(() -> parse(file, policy)));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, "pattern-call-loader");
+		producer.setDaemon(true);
+		producer.start();
+
+		try (BufferedWriter rejectWriter = PatternCallFileParser.openRejectWriter(policy)) {
+			for (int i = 0; i < files.size(); i++) {
+				ParsedFile parsed = queue.take().get();
+				if (parsed.error != null) {
+					report.fileFailed(parsed.error);
+					continue;
+				}
+				for (PatternCallLoadReport.LoadError rejection : parsed.rejections) {
+					report.lineRejected(rejection);
+					if (rejectWriter != null) {
+						rejectWriter.write(rejection.getLine());
+						rejectWriter.newLine();
+					}
+				}
+				int added = repository.addPatternCalls(parsed.patternCalls);
+				report.fileLoaded(parsed.patternCalls.size(), added);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while loading " + directory);
+		} catch (ExecutionException e) {
+			throw new IOException("Failed to load " + directory, e.getCause());
+		} finally {
+			producer.interrupt();
+			executor.shutdownNow();
+		}
+		return report;
+	}
+
+	private static ParsedFile parse(Path file, ParsePolicy policy) {
+		List<PatternCall> patternCalls = new ArrayList<>();
+		List<PatternCallLoadReport.LoadError> rejections = new ArrayList<>();
+		PatternCallFileParser parser = new PatternCallFileParser(file, policy);
+		try {
+			parser.parse(new PatternCallFileParser.Sink() {
+				@Override
+				public void accept(PatternCall patternCall) {
+					patternCalls.add(patternCall);
+				}
+
+				@Override
+				public void reject(PatternCallLoadReport.LoadError error) {
+					rejections.add(error);
+				}
+			});
+		} catch (IllegalArgumentException e) {
+			return new ParsedFile(new PatternCallLoadReport.LoadError(file, parser.getLineNumber(), null,
+					e.getMessage()));
+		} catch (IOException | RuntimeException e) {
+			return new ParsedFile(new PatternCallLoadReport.LoadError(file, 0, null, e.toString()));
+		}
+		return new ParsedFile(patternCalls, rejections);
+	}
+
+	private static class ParsedFile {
+		private final List<PatternCall> patternCalls;
+		private final List<PatternCallLoadReport.LoadError> rejections;
+		private final PatternCallLoadReport.LoadError error;
+
+		private ParsedFile(List<PatternCall> patternCalls, List<PatternCallLoadReport.LoadError> rejections) {
+			this.patternCalls = patternCalls;
+			this.rejections = rejections;
+			this.error = null;
+		}
+
+		private ParsedFile(PatternCallLoadReport.LoadError error) {
+			this.patternCalls = List.of();
+			this.rejections = List.of();
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package com.homework.patternquerytool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Streams the lines of one pattern call file through
+ * {@link PatternCallRepository#parseLine(String)} and applies a ParsePolicy to
+ * the invalid ones. Valid records and rejected lines are handed to a Sink as
+ * they are read, so the file is never held in memory as a whole.
+ *
+ * @author soumya-s-goud
+ */
+class PatternCallFileParser {
+
+	/**
+	 * Receives the outcome of each non-blank line.
+	 */
+	interface Sink {
+
+		void accept(PatternCall patternCall);
+
+		void reject(PatternCallLoadReport.LoadError error) throws IOException;
+	}
+
+	private final Path file;
+	private final ParsePolicy policy;
+	private int lineNumber;
+
+	PatternCallFileParser(Path file, ParsePolicy policy) {
+		this.file = file;
+		this.policy = policy;
+	}
+
+	/**
+	 * Parses the whole file.
+	 *
+	 * @param sink receives the valid records and the rejected lines
+	 * @return the number of valid records read
+	 * @throws IOException              if the file cannot be read or the sink
+	 *                                  fails
+	 * @throws IllegalArgumentException on the first invalid line under the strict
+	 *                                  policy
+	 */
+	int parse(Sink sink) throws IOException {
+		boolean strict = policy.getMode() == ParsePolicy.Mode.STRICT;
+		int read = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				PatternCall patternCall;
+				try {
+					patternCall = PatternCallRepository.parseLine(line);
+				} catch (IllegalArgumentException e) {
+					if (strict) {
+						throw e;
+					}
+					sink.reject(new PatternCallLoadReport.LoadError(file, lineNumber, line, e.getMessage()));
+					continue;
+				}
+				if (patternCall == null) {
+					if (!strict) {
+						sink.reject(new PatternCallLoadReport.LoadError(file, lineNumber, line,
+								"Expected 4 comma-separated fields"));
+					}
+					continue; // Strict mode keeps skipping short lines silently
+				}
+				sink.accept(patternCall);
+				read++;
+			}
+		}
+		return read;
+	}
+
+	/**
+	 * Reads one file into a store in chunks of the given number of records,
+	 * each added in one {@link PatternCallStore#addPatternCalls(Collection)}
+	 * call, so the file is parsed without holding the store's lock and never
+	 * held in memory as a whole. Readers may see the chunks added so far while
+	 * the load runs. Under the strict policy the records read before the invalid
+	 * line are still added.
+	 *
+	 * @param file      the file to read
+	 * @param policy    how invalid lines are handled
+	 * @param store     the store to add the records to
+	 * @param chunkSize the number of records added at once
+	 * @return the report of the load
+	 * @throws IOException              if the file cannot be read or the reject
+	 *                                  file cannot be written
+	 * @throws IllegalArgumentException on the first invalid line under the strict
+	 *                                  policy
+	 */
+	static PatternCallLoadReport load(Path file, ParsePolicy policy, PatternCallStore store, int chunkSize)
+			throws IOException {
+		PatternCallLoadReport report = new PatternCallLoadReport(policy.getMaxErrors());
+		List<PatternCall> parsed = new ArrayList<>(Math.min(chunkSize, 4096));
+		int[] added = new int[1];
+
+		try (BufferedWriter rejectWriter = openRejectWriter(policy)) {
+			int read;
+			try {
+				read = new PatternCallFileParser(file, policy).parse(new Sink() {
+					@Override
+					public void accept(PatternCall patternCall) {
+						parsed.add(patternCall);
+						if (parsed.size() == chunkSize) {
+							added[0] += store.addPatternCalls(parsed);
+							parsed.clear();
+						}
+					}
+
+					@Override
+					public void reject(PatternCallLoadReport.LoadError error) throws IOException {
+						report.lineRejected(error);
+						if (rejectWriter != null) {
+							rejectWriter.write(error.getLine());
+							rejectWriter.newLine();
+						}
+					}
+				});
+			} finally {
+				added[0] += store.addPatternCalls(parsed); // Also keeps the records read before a failure
+			}
+			report.fileLoaded(read, added[0]);
+		}
+		return report;
+	}
+
+	/**
+	 * Parses one file completely before adding its records to a store in a
+	 * single {@link PatternCallStore#addPatternCalls(Collection)} call, so the
+	 * store is only locked for the insert and readers see all of the file or
+	 * none of it. Under the strict policy the records read before the invalid
+	 * line are still added.
+	 *
+	 * @param file   the file to read
+	 * @param policy how invalid lines are handled
+	 * @param store  the store to add the records to
+	 * @return the report of the load
+	 * @throws IOException              if the file cannot be read or the reject
+	 *                                  file cannot be written
+	 * @throws IllegalArgumentException on the first invalid line under the strict
+	 *                                  policy
+	 */
+	static PatternCallLoadReport loadBuffered(Path file, ParsePolicy policy, PatternCallStore store)
+			throws IOException {
+		return load(file, policy, store, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Opens the reject file of a quarantine policy for writing.
+	 *
+	 * @param policy the policy in use
+	 * @return the writer for rejected lines, or null if the policy keeps none
+	 * @throws IOException if the reject file cannot be created
+	 */
+	static BufferedWriter openRejectWriter(ParsePolicy policy) throws IOException {
+		return policy.getRejectFile() == null ? null : Files.newBufferedWriter(policy.getRejectFile());
+	}
+
+	/**
+	 * Gets the number of the line read last, i.e. the failing line after an
+	 * exception.
+	 *
+	 * @return the 1-based line number, or 0 if nothing was read
+	 */
+	int getLineNumber() {
+		return lineNumber;
+	}
+}
@@ -0,0 +1,313 @@
+package com.homework.patternquerytool;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Call graph between pattern files, built from a snapshot of a
+ * PatternCallStore to answer transitive questions such as which files are
+ * reachable from a file, which files are affected by a change to a file and
+ * which pattern calls can never run.
+ *
+ * <p>
+ * The nodes are the pattern files named by the calls. A pattern call is made
+ * from the file implementing the pattern it is named after, i.e. the file
+ * whose name without directory and extension equals the call name; a call
+ * {@code 7,Login,src/patterns/Auth.pat,true} is an edge from
+ * {@code src/patterns/Login.pat} to {@code src/patterns/Auth.pat}. A call whose
+ * name matches no file is an entry call made from outside the graph.
+ * </p>
+ *
+ * <p>
+ * Outgoing edges are found by grouping the snapshot by call name and
+ * incoming edges by grouping it by path, so both directions follow the same
+ * calls and building the graph does not count as lookups of the repository.
+ * Both directions are stored as compact int arrays (compressed sparse rows). Reachability runs as a level-synchronous
+ * breadth-first search that expands large frontiers in parallel. Results are
+ * cached; the graph does not follow later changes to the repository, so it
+ * has to be rebuilt after them.
+ * </p>
+ *
+ * <p>
+ * The graph keeps its own copy of every pattern call on the heap. Built from
+ * a SpillingPatternCallRepository, it therefore takes as much memory as the
+ * whole store, outside the repository's memory budget.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallGraph {
+
+	private static final int PARALLEL_FRONTIER = 4096;
+	private static final int[] NO_NODES = new int[0];
+
+	private final String[] files;
+	private final Map<String, Integer> fileIds;
+	private final Map<String, int[]> nodesByPatternName;
+	private final List<PatternCall> patternCalls;
+
+	private final int[] forwardOffsets;
+	private final int[] forwardTargets;
+	private final BitSet forwardCalled;
+	private final int[] reverseOffsets;
+	private final int[] reverseSources;
+	private final BitSet reverseCalled;
+
+	private final Map<Long, Set<String>> reachableCache = new ConcurrentHashMap<>();
+	private final Map<Long, Set<String>> impactedCache = new ConcurrentHashMap<>();
+	private volatile List<PatternCall> deadPatternCalls;
+
+	/**
+	 * Builds the call graph of the pattern calls currently in the repository.
+	 *
+	 * @param repository the repository to build the graph from
+	 */
+	public PatternCallGraph(PatternCallStore repository) {
+		patternCalls = new ArrayList<>(repository.getPatternCalls());
+
+		// Number the files and group them by the pattern name they implement
+		fileIds = new LinkedHashMap<>();
+		for (PatternCall patternCall : patternCalls) {
+			fileIds.putIfAbsent(patternCall.getPatternFile(), fileIds.size());
+		}
+		files = fileIds.keySet().toArray(new String[0]);
+		Map<String, List<Integer>> grouped = new HashMap<>();
+		for (int node = 0; node < files.length; node++) {
+			grouped.computeIfAbsent(patternName(files[node]), k -> new ArrayList<>()).add(node);
+		}
+		nodesByPatternName = new HashMap<>();
+		grouped.forEach((name, nodes) -> nodesByPatternName.put(name,
+				nodes.stream().mapToInt(Integer::intValue).toArray()));
+
+		// Group the snapshot by name and by path, so both edge directions follow
+		// the same calls even if the repository changes meanwhile
+		Map<String, List<PatternCall>> callsByName = new HashMap<>();
+		Map<String, List<PatternCall>> callsByPath = new HashMap<>();
+		for (PatternCall patternCall : patternCalls) {
+			callsByName.computeIfAbsent(patternCall.getName(), k -> new ArrayList<>()).add(patternCall);
+			callsByPath.computeIfAbsent(patternCall.getPatternFile(), k -> new ArrayList<>()).add(patternCall);
+		}
+
+		// Forward edges: the calls named after each file
+		forwardOffsets = new int[files.length + 1];
+		for (int node = 0; node < files.length; node++) {
+			forwardOffsets[node + 1] = forwardOffsets[node]
+					+ callsByName.getOrDefault(patternName(files[node]), List.of()).size();
+		}
+		forwardTargets = new int[forwardOffsets[files.length]];
+		forwardCalled = new BitSet(forwardTargets.length);
+		for (int node = 0; node < files.length; node++) {
+			int edge = forwardOffsets[node];
+			for (PatternCall patternCall : callsByName.getOrDefault(patternName(files[node]), List.of())) {
+				forwardTargets[edge] = fileIds.get(patternCall.getPatternFile());
+				forwardCalled.set(edge++, patternCall.isCalled());
+			}
+		}
+
+		// Reverse edges: the calls into each file
+		reverseOffsets = new int[files.length + 1];
+		for (int node = 0; node < files.length; node++) {
+			int count = 0;
+			for (PatternCall patternCall : callsByPath.get(files[node])) {
+				count += sourcesOf(patternCall).length;
+			}
+			reverseOffsets[node + 1] = reverseOffsets[node] + count;
+		}
+		reverseSources = new int[reverseOffsets[files.length]];
+		reverseCalled = new BitSet(reverseSources.length);
+		for (int node = 0; node < files.length; node++) {
+			int edge = reverseOffsets[node];
+			for (PatternCall patternCall : callsByPath.get(files[node])) {
+				for (int source : sourcesOf(patternCall)) {
+					reverseSources[edge] = source;
+					reverseCalled.set(edge++, patternCall.isCalled());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of pattern files in the graph.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getFileCount() {
+		return files.length;
+	}
+
+	/**
+	 * Gets the number of calls between pattern files in the graph.
+	 *
+	 * @return the number of edges
+	 */
+	public int getEdgeCount() {
+		return forwardTargets.length;
+	}
+
+	/**
+	 * Retrieves the pattern files reachable from the given file by following
+	 * calls. The file itself is only included if it is reachable through a cycle.
+	 *
+	 * @param patternFile the file to start from
+	 * @param calledOnly  true to follow only calls that are marked as called
+	 * @return the reachable files, or an empty set if the file is not in the
+	 *         graph
+	 */
+	public Set<String> getReachableFiles(String patternFile, boolean calledOnly) {
+		Integer node = fileIds.get(patternFile);
+		if (node == null) {
+			return Set.of();
+		}
+		return reachableCache.computeIfAbsent(cacheKey(node, calledOnly),
+				k -> reach(node, forwardOffsets, forwardTargets, calledOnly ? forwardCalled : null));
+	}
+
+	/**
+	 * Retrieves the pattern files affected by a change to the given file, i.e.
+	 * the files from which it can be reached by following calls.
+	 *
+	 * @param patternFile the changed file
+	 * @param calledOnly  true to follow only calls that are marked as called
+	 * @return the affected files, or an empty set if the file is not in the graph
+	 */
+	public Set<String> getImpactedFiles(String patternFile, boolean calledOnly) {
+		Integer node = fileIds.get(patternFile);
+		if (node == null) {
+			return Set.of();
+		}
+		return impactedCache.computeIfAbsent(cacheKey(node, calledOnly),
+				k -> reach(node, reverseOffsets, reverseSources, calledOnly ? reverseCalled : null));
+	}
+
+	/**
+	 * Retrieves the pattern calls that can never run: calls that are skipped,
+	 * and called ones whose calling files cannot be reached from an entry call
+	 * through called calls alone.
+	 *
+	 * @return the dead pattern calls in repository order
+	 */
+	public List<PatternCall> getDeadPatternCalls() {
+		List<PatternCall> dead = deadPatternCalls;
+		if (dead == null) {
+			// Files reached by called entry calls are live, and so is everything
+			// they reach through called calls
+			int[] seeds = patternCalls.stream().filter(p -> p.isCalled() && sourcesOf(p).length == 0)
+					.mapToInt(p -> fileIds.get(p.getPatternFile())).distinct().toArray();
+			BitSet live = search(forwardOffsets, forwardTargets, forwardCalled, seeds);
+
+			dead = new ArrayList<>();
+			for (PatternCall patternCall : patternCalls) {
+				if (!patternCall.isCalled() || !isLiveCall(patternCall, live)) {
+					dead.add(patternCall);
+				}
+			}
+			dead = Collections.unmodifiableList(dead);
+			deadPatternCalls = dead;
+		}
+		return dead;
+	}
+
+	private boolean isLiveCall(PatternCall patternCall, BitSet live) {
+		int[] sources = sourcesOf(patternCall);
+		if (sources.length == 0) {
+			return true; // Entry call
+		}
+		for (int source : sources) {
+			if (live.get(source)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int[] sourcesOf(PatternCall patternCall) {
+		return nodesByPatternName.getOrDefault(patternCall.getName(), NO_NODES);
+	}
+
+	/**
+	 * Breadth-first search from the seed nodes, which are marked visited.
+	 * Frontiers larger than PARALLEL_FRONTIER are expanded in parallel, with
+	 * nodes claimed by compare-and-set on a shared bitmap.
+	 */
+	private BitSet search(int[] offsets, int[] adjacency, BitSet usable, int[] seeds) {
+		AtomicLongArray visited = new AtomicLongArray((files.length + 63) / 64);
+		int[] frontier = IntStream.of(seeds).filter(node -> claim(visited, node)).toArray();
+		while (frontier.length > 0) {
+			IntStream nodes = IntStream.of(frontier);
+			if (frontier.length >= PARALLEL_FRONTIER) {
+				nodes = nodes.parallel();
+			}
+			frontier = nodes.flatMap(node -> {
+				IntStream.Builder next = IntStream.builder();
+				for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+					if ((usable == null || usable.get(edge)) && claim(visited, adjacency[edge])) {
+						next.add(adjacency[edge]);
+					}
+				}
+				return next.build();
+			}).toArray();
+		}
+
+		long[] words = new long[visited.length()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = visited.get(i);
+		}
+		return BitSet.valueOf(words);
+	}
+
+	private static boolean claim(AtomicLongArray visited, int node) {
+		int word = node >>> 6;
+		long bit = 1L << node;
+		long current;
+		do {
+			current = visited.get(word);
+			if ((current & bit) != 0) {
+				return false;
+			}
+		} while (!visited.compareAndSet(word, current, current | bit));
+		return true;
+	}
+
+	/**
+	 * Returns the files reachable from the node in the given edge direction,
+	 * starting from its neighbours so the node is only included through a cycle.
+	 */
+	private Set<String> reach(int node, int[] offsets, int[] adjacency, BitSet usable) {
+		int[] neighbours = IntStream.range(offsets[node], offsets[node + 1])
+				.filter(edge -> usable == null || usable.get(edge)).map(edge -> adjacency[edge]).toArray();
+		BitSet reached = search(offsets, adjacency, usable, neighbours);
+
+		Set<String> result = new LinkedHashSet<>();
+		for (int next = reached.nextSetBit(0); next >= 0; next = reached.nextSetBit(next + 1)) {
+			result.add(files[next]);
+		}
+		return Collections.unmodifiableSet(result);
+	}
+
+	private static long cacheKey(int node, boolean calledOnly) {
+		return ((long) node << 1) | (calledOnly ? 1 : 0);
+	}
+
+	/**
+	 * Returns the name of the pattern a file implements: its file name without
+	 * directory and extension.
+	 */
+	static String patternName(String patternFile) {
+		if (patternFile == null) {
+			return null;
+		}
+		int start = Math.max(patternFile.lastIndexOf('/'), patternFile.lastIndexOf('\\')) + 1;
+		int end = patternFile.lastIndexOf('.');
+		return patternFile.substring(start, end > start ? end : patternFile.length());
+	}
+}
@@ -0,0 +1,185 @@
+package com.homework.patternquerytool;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class summarizes the outcome of loading pattern call files into a
+ * PatternCallRepository: how many files and records were processed, which
+ * files could not be parsed and which lines were rejected.
+ *
+ * <p>
+ * Only the first errors, up to the limit given by the ParsePolicy, are kept;
+ * the counts always cover every failure.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallLoadReport {
+
+	private int filesLoaded;
+	private int patternCallsRead;
+	private int patternCallsAdded;
+	private int filesFailed;
+	private long linesRejected;
+	private final int maxErrors;
+	private final List<LoadError> errors = new ArrayList<>();
+
+	/**
+	 * Describes a failure to parse a pattern call file or one of its lines.
+	 */
+	public static class LoadError {
+
+		private final Path file;
+		private final int lineNumber;
+		private final String line;
+		private final String message;
+
+		/**
+		 * Constructs a LoadError for the given file and line.
+		 *
+		 * @param file       the file that failed
+		 * @param lineNumber the 1-based line that failed, or 0 if not line specific
+		 * @param line       the content of the failed line, or null if not line
+		 *                   specific
+		 * @param message    the reason for the failure
+		 */
+		public LoadError(Path file, int lineNumber, String line, String message) {
+			this.file = file;
+			this.lineNumber = lineNumber;
+			this.line = line;
+			this.message = message;
+		}
+
+		/**
+		 * Gets the file that failed.
+		 *
+		 * @return the file path
+		 */
+		public Path getFile() {
+			return file;
+		}
+
+		/**
+		 * Gets the line that failed.
+		 *
+		 * @return the 1-based line number, or 0 if not line specific
+		 */
+		public int getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * Gets the content of the line that failed.
+		 *
+		 * @return the line, or null if not line specific
+		 */
+		public String getLine() {
+			return line;
+		}
+
+		/**
+		 * Gets the reason for the failure.
+		 *
+		 * @return the error message
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			return file + ":" + lineNumber + ": " + message;
+		}
+	}
+
+	/**
+	 * Creates an empty report keeping at most the given number of errors.
+	 *
+	 * @param maxErrors the maximum number of errors to keep
+	 */
+	PatternCallLoadReport(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
+	void fileLoaded(int read, int added) {
+		filesLoaded++;
+		patternCallsRead += read;
+		patternCallsAdded += added;
+	}
+
+	void fileFailed(LoadError error) {
+		filesFailed++;
+		addError(error);
+	}
+
+	void lineRejected(LoadError error) {
+		linesRejected++;
+		addError(error);
+	}
+
+	private void addError(LoadError error) {
+		if (errors.size() < maxErrors) {
+			errors.add(error);
+		}
+	}
+
+	/**
+	 * Gets the number of files that were parsed and applied to the repository.
+	 *
+	 * @return the number of loaded files
+	 */
+	public int getFilesLoaded() {
+		return filesLoaded;
+	}
+
+	/**
+	 * Gets the number of pattern calls parsed from the loaded files, including
+	 * duplicates that were not added.
+	 *
+	 * @return the number of parsed pattern calls
+	 */
+	public int getPatternCallsRead() {
+		return patternCallsRead;
+	}
+
+	/**
+	 * Gets the number of pattern calls added to the repository.
+	 *
+	 * @return the number of added pattern calls
+	 */
+	public int getPatternCallsAdded() {
+		return patternCallsAdded;
+	}
+
+	/**
+	 * Gets the number of files that could not be read or, under the strict
+	 * policy, parsed. None of their records were added.
+	 *
+	 * @return the number of failed files
+	 */
+	public int getFilesFailed() {
+		return filesFailed;
+	}
+
+	/**
+	 * Gets the number of lines skipped as invalid under the skip or quarantine
+	 * policy.
+	 *
+	 * @return the number of rejected lines
+	 */
+	public long getLinesRejected() {
+		return linesRejected;
+	}
+
+	/**
+	 * Gets the first errors encountered during the load, in file and line order.
+	 *
+	 * @return an unmodifiable list of errors, empty if the load was clean
+	 */
+	public List<LoadError> getErrors() {
+		return Collections.unmodifiableList(errors);
+	}
+}
@@ -0,0 +1,259 @@
+package com.homework.patternquerytool;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * This class represents a single lookup against the PatternCallQueryService,
+ * parsed from its one-line text form.
+ *
+ * <p>
+ * Supported forms are {@code id <id>}, {@code range <fromId> <toId>},
+ * {@code name <name>}, {@code path <patternFile>}, {@code skipped} and
+ * {@code called}. The keyword is case-insensitive, the argument is taken
+ * verbatim after trimming.
+ * </p>
+ *
+ * <p>
+ * A query may end with the options {@code limit=<maxResults>} and
+ * {@code timeout=<milliseconds>}, e.g. {@code skipped limit=100 timeout=50},
+ * which bound it like the corresponding QueryOptions. They override the
+ * defaults passed to {@link #execute(PatternCallQueryService, QueryOptions)}.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallQuery {
+
+	/**
+	 * The kinds of lookups a query can perform.
+	 */
+	public enum Type {
+		ID, RANGE, NAME, PATH, SKIPPED, CALLED
+	}
+
+	private final Type type;
+	private final String argument;
+	private final Integer limit; // null when not given
+	private final Duration timeout; // null when not given
+
+	/**
+	 * Constructs a query of the given type with the given argument.
+	 *
+	 * @param type     the kind of lookup
+	 * @param argument the id, name or path to look up, or null for status queries
+	 */
+	public PatternCallQuery(Type type, String argument) {
+		this(type, argument, null, null);
+	}
+
+	/**
+	 * Constructs a query of the given type with the given argument and limits.
+	 *
+	 * @param type     the kind of lookup
+	 * @param argument the id, name or path to look up, or null for status queries
+	 * @param limit    the maximum number of results, or null for the default
+	 * @param timeout  the maximum time the query may run, or null for the default
+	 */
+	public PatternCallQuery(Type type, String argument, Integer limit, Duration timeout) {
+		if (type == null) {
+			throw new IllegalArgumentException("Query type cannot be null");
+		}
+		if ((type == Type.SKIPPED || type == Type.CALLED) != (argument == null)) {
+			throw new IllegalArgumentException("Invalid argument for " + type + " query: " + argument);
+		}
+		if (limit != null && limit < 0) {
+			throw new IllegalArgumentException("Limit cannot be negative");
+		}
+		if (timeout != null && timeout.isNegative()) {
+			throw new IllegalArgumentException("Timeout cannot be negative");
+		}
+		this.type = type;
+		this.argument = argument;
+		this.limit = limit;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Parses a query from its text form, e.g. {@code id 42},
+	 * {@code path src/patterns/Another.pat} or {@code called limit=10}.
+	 *
+	 * @param line the query line to parse
+	 * @return the parsed query
+	 * @throws IllegalArgumentException if the line is not a valid query
+	 */
+	public static PatternCallQuery parse(String line) {
+		if (line == null || line.isBlank()) {
+			throw new IllegalArgumentException("Empty query");
+		}
+		String trimmed = line.trim();
+
+		// Strip the trailing options, never the keyword
+		String body = trimmed;
+		Integer limit = null;
+		Duration timeout = null;
+		for (int space = body.lastIndexOf(' '); space > 0; space = body.lastIndexOf(' ')) {
+			String option = body.substring(space + 1);
+			if (option.startsWith("limit=") && limit == null) {
+				limit = optionValue(option, trimmed);
+			} else if (option.startsWith("timeout=") && timeout == null) {
+				timeout = Duration.ofMillis(optionValue(option, trimmed));
+			} else {
+				break;
+			}
+			body = body.substring(0, space).trim();
+		}
+
+		int space = body.indexOf(' ');
+		String keyword = space < 0 ? body : body.substring(0, space);
+		String argument = space < 0 ? null : body.substring(space + 1).trim();
+
+		Type type;
+		try {
+			type = Type.valueOf(keyword.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown query: " + trimmed);
+		}
+		if (type == Type.ID && argument != null) {
+			try {
+				Integer.parseInt(argument);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid id in query: " + trimmed);
+			}
+		}
+		if (type == Type.RANGE && argument != null) {
+			String[] bounds = argument.split("\\s+");
+			try {
+				if (bounds.length != 2) {
+					throw new NumberFormatException();
+				}
+				Integer.parseInt(bounds[0]);
+				Integer.parseInt(bounds[1]);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid id range in query: " + trimmed);
+			}
+		}
+		return new PatternCallQuery(type, argument, limit, timeout);
+	}
+
+	/**
+	 * Runs this query against the given query service, bounded only by its own
+	 * options.
+	 *
+	 * @param queryService the service to query
+	 * @return the matching PatternCalls, or an empty list if none found
+	 */
+	public List<PatternCall> execute(PatternCallQueryService queryService) {
+		return execute(queryService, QueryOptions.unbounded()).getPatternCalls();
+	}
+
+	/**
+	 * Runs this query against the given query service within the given limits,
+	 * of which this query's own options take precedence.
+	 *
+	 * @param queryService the service to query
+	 * @param defaults     the limits applying unless this query sets its own
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	public QueryResult execute(PatternCallQueryService queryService, QueryOptions defaults) {
+		QueryOptions options = defaults;
+		if (limit != null) {
+			options = options.withMaxResults(limit);
+		}
+		if (timeout != null) {
+			options = options.withTimeout(timeout);
+		}
+
+		switch (type) {
+		case ID:
+			QueryCollector collector = new QueryCollector(options);
+			PatternCall patternCall = queryService.getPatternCallById(Integer.parseInt(argument));
+			if (patternCall != null && collector.scanned()) {
+				collector.add(patternCall);
+			}
+			return collector.result();
+		case RANGE:
+			String[] bounds = argument.split("\\s+");
+			return queryService.getPatternCallsInIdRange(Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]),
+					options);
+		case NAME:
+			return queryService.getPatternCallsByName(argument, options);
+		case PATH:
+			return queryService.getPatternCallsByPath(argument, options);
+		case SKIPPED:
+			return queryService.getSkippedPatternCalls(options);
+		default:
+			return queryService.getCalledPatternCalls(options);
+		}
+	}
+
+	/**
+	 * Gets the kind of lookup this query performs.
+	 *
+	 * @return the query type
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the argument of this query.
+	 *
+	 * @return the id, name or path to look up, or null for status queries
+	 */
+	public String getArgument() {
+		return argument;
+	}
+
+	/**
+	 * Gets the result limit of this query.
+	 *
+	 * @return the maximum number of results, or null if the query has none
+	 */
+	public Integer getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Gets the timeout of this query.
+	 *
+	 * @return the maximum time the query may run, or null if it has none
+	 */
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Returns the query in the text form accepted by {@link #parse(String)}.
+	 *
+	 * @return the text form of this query
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(type.name().toLowerCase());
+		if (argument != null) {
+			text.append(' ').append(argument);
+		}
+		if (limit != null) {
+			text.append(" limit=").append(limit);
+		}
+		if (timeout != null) {
+			text.append(" timeout=").append(timeout.toMillis());
+		}
+		return text.toString();
+	}
+
+	private static int optionValue(String option, String query) {
+		try {
+			int value = Integer.parseInt(option.substring(option.indexOf('=') + 1));
+			if (value < 0) {
+				throw new NumberFormatException();
+			}
+			return value;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + option.substring(0, option.indexOf('=')) + " in query: "
+					+ query);
+		}
+	}
+}
@@ -0,0 +1,277 @@
+package com.homework.patternquerytool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server exposing a PatternCallQueryService to other local
+ * processes, so a repository only has to be loaded once.
+ *
+ * <p>
+ * The single endpoint {@code /query} accepts a batch of queries in the text
+ * form of {@link PatternCallQuery}: one per line in the body of a POST, or as
+ * repeated {@code q} parameters of a GET. Results are written in request
+ * order while the batch is processed; each query's matches are sent as
+ * record lines ({@link PatternCall#toRecordLine()}) followed by an empty
+ * line. A batch containing an invalid query is rejected with status 400
+ * before any result is sent.
+ * </p>
+ *
+ * <p>
+ * Every query runs within the server's default QueryOptions, which the
+ * request can override for the whole batch with the URL parameters
+ * {@code limit} and {@code timeout} (in milliseconds), and each query with its
+ * own {@code limit=} and {@code timeout=} options. A query stopped by a limit
+ * sends the matches collected so far followed by a {@code # <status>} line,
+ * e.g. {@code # TRUNCATED}, before its empty line. As the status 200 is sent
+ * before the first query runs, a query that fails, e.g. with a
+ * QueryAbortedException under fail-fast options, ends the response with a
+ * final {@code # ERROR <message>} line instead of its results, and the rest of
+ * the batch is dropped. The next query of the batch
+ * runs while the results of the previous one are written; if writing fails
+ * because the client disconnected, the running query is cancelled and the
+ * rest of the batch is dropped.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallQueryServer {
+
+	private final PatternCallQueryService queryService;
+	private final QueryOptions defaults;
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	/**
+	 * Creates a server for the given query service bound to the given address.
+	 * The server does not accept requests until {@link #start()} is called.
+	 *
+	 * @param queryService the service used to answer queries
+	 * @param address      the address to bind to, port 0 picks a free port
+	 * @throws IOException if the server socket cannot be bound
+	 */
+	public PatternCallQueryServer(PatternCallQueryService queryService, InetSocketAddress address)
+			throws IOException {
+		this(queryService, address, QueryOptions.unbounded());
+	}
+
+	/**
+	 * Creates a server for the given query service bound to the given address,
+	 * running every query within the given limits unless the request sets its
+	 * own. The server does not accept requests until {@link #start()} is called.
+	 *
+	 * @param queryService the service used to answer queries
+	 * @param address      the address to bind to, port 0 picks a free port
+	 * @param defaults     the limits of queries that do not set their own
+	 * @throws IOException if the server socket cannot be bound
+	 */
+	public PatternCallQueryServer(PatternCallQueryService queryService, InetSocketAddress address,
+			QueryOptions defaults) throws IOException {
+		if (defaults == null) {
+			throw new IllegalArgumentException("Default query options cannot be null");
+		}
+		this.queryService = queryService;
+		this.defaults = defaults;
+		this.server = HttpServer.create(address, 0);
+		this.executor = Executors.newCachedThreadPool();
+		server.setExecutor(executor);
+		server.createContext("/query", this::handleQuery);
+	}
+
+	/**
+	 * Starts accepting requests.
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops the server, closing open connections and releasing its threads.
+	 */
+	public void stop() {
+		server.stop(0);
+		executor.shutdown();
+	}
+
+	/**
+	 * Gets the port the server is listening on.
+	 *
+	 * @return the bound port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	private void handleQuery(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			List<PatternCallQuery> queries;
+			QueryOptions options;
+			try {
+				queries = readQueries(exchange);
+				options = requestOptions(exchange);
+			} catch (IllegalArgumentException e) {
+				sendError(exchange, 400, e.getMessage());
+				return;
+			}
+			if (queries == null) {
+				sendError(exchange, 405, "Only GET and POST are supported");
+				return;
+			}
+
+			CancellationToken token = new CancellationToken();
+			QueryOptions requestOptions = options.withCancellationToken(token);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+			exchange.sendResponseHeaders(200, 0); // chunked, results are streamed as they are produced
+			try (Writer writer = new BufferedWriter(
+					new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+				Future<QueryResult> next = queries.isEmpty() ? null : submit(queries.get(0), requestOptions);
+				try {
+					for (int i = 0; i < queries.size(); i++) {
+						QueryResult result;
+						try {
+							result = await(next);
+						} catch (ExecutionException e) {
+							// The status is already sent, so end the body with the error instead
+							writer.write("# ERROR " + errorMessage(e.getCause()) + "\n");
+							return;
+						}
+						next = i + 1 < queries.size() ? submit(queries.get(i + 1), requestOptions) : null;
+						write(result, writer);
+					}
+				} catch (IOException e) {
+					// The client is gone, stop the query still running
+					token.cancel();
+					if (next != null) {
+						next.cancel(true);
+					}
+					throw e;
+				}
+			}
+		}
+	}
+
+	private Future<QueryResult> submit(PatternCallQuery query, QueryOptions options) {
+		return executor.submit(() -> query.execute(queryService, options));
+	}
+
+	private static QueryResult await(Future<QueryResult> result) throws IOException, ExecutionException {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while running queries", e);
+		}
+	}
+
+	/**
+	 * Returns the message of a failed query on a single line.
+	 */
+	private static String errorMessage(Throwable failure) {
+		String message = failure.getMessage() == null ? failure.getClass().getSimpleName() : failure.getMessage();
+		return message.replaceAll("[\\r\\n]+", " ");
+	}
+
+	/**
+	 * Writes the matches of one query, its status if it did not complete, and
+	 * the terminating empty line, then flushes them to the client.
+	 */
+	private static void write(QueryResult result, Writer writer) throws IOException {
+		for (PatternCall patternCall : result.getPatternCalls()) {
+			writer.write(patternCall.toRecordLine());
+			writer.write('\n');
+		}
+		if (!result.isComplete()) {
+			writer.write("# " + result.getStatus() + "\n");
+		}
+		writer.write('\n');
+		writer.flush();
+	}
+
+	/**
+	 * Returns the server's default options overridden by the {@code limit} and
+	 * {@code timeout} parameters of the request URL.
+	 */
+	private QueryOptions requestOptions(HttpExchange exchange) {
+		QueryOptions options = defaults;
+		String rawQuery = exchange.getRequestURI().getRawQuery();
+		if (rawQuery != null) {
+			for (String parameter : rawQuery.split("&")) {
+				if (parameter.startsWith("limit=")) {
+					options = options.withMaxResults(parameterValue(parameter));
+				} else if (parameter.startsWith("timeout=")) {
+					options = options.withTimeout(Duration.ofMillis(parameterValue(parameter)));
+				}
+			}
+		}
+		return options;
+	}
+
+	private static int parameterValue(String parameter) {
+		try {
+			int value = Integer.parseInt(parameter.substring(parameter.indexOf('=') + 1));
+			if (value < 0) {
+				throw new NumberFormatException();
+			}
+			return value;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+					"Invalid parameter: " + URLDecoder.decode(parameter, StandardCharsets.UTF_8));
+		}
+	}
+
+	private List<PatternCallQuery> readQueries(HttpExchange exchange) throws IOException {
+		List<PatternCallQuery> queries = new ArrayList<>();
+		String method = exchange.getRequestMethod();
+		if ("POST".equalsIgnoreCase(method)) {
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (!line.isBlank()) {
+						queries.add(PatternCallQuery.parse(line));
+					}
+				}
+			}
+		} else if ("GET".equalsIgnoreCase(method)) {
+			String rawQuery = exchange.getRequestURI().getRawQuery();
+			if (rawQuery != null) {
+				for (String parameter : rawQuery.split("&")) {
+					if (parameter.startsWith("q=")) {
+						queries.add(PatternCallQuery
+								.parse(URLDecoder.decode(parameter.substring(2), StandardCharsets.UTF_8)));
+					}
+				}
+			}
+		} else {
+			return null;
+		}
+		return queries;
+	}
+
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
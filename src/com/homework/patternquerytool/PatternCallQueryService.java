@@ -1,31 +1,38 @@
 package com.homework.patternquerytool;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * This class provides services for querying PatternCall objects stored in the
- * PatternCallRepository.
+ * PatternCallStore.
  * 
  * <p>
  * It encapsulates various methods to retrieve pattern calls based on their ID,
  * name, file path, and the 'called' status.
  * </p>
+ *
+ * <p>
+ * The lookups that can return many PatternCalls also accept QueryOptions,
+ * which bound them by a timeout, a result limit and a cancellation token. The
+ * limits are checked inside the repository's scan loops every
+ * {@value QueryCollector#CHECK_INTERVAL} scanned PatternCalls, so a query stops
+ * within that many steps of hitting one.
+ * </p>
  * 
  * @author soumya-s-goud
  */
 public class PatternCallQueryService {
 
-	private final PatternCallRepository repository;
+	private final PatternCallStore repository;
 
 	/**
 	 * Constructs a PatternCallQueryService with the specified
-	 * PatternCallRepository.
+	 * PatternCallStore.
 	 *
 	 * @param repository the repository used for storing and retrieving PatternCall
 	 *                   objects
 	 */
-	public PatternCallQueryService(PatternCallRepository repository) {
+	public PatternCallQueryService(PatternCallStore repository) {
 		this.repository = repository;
 	}
 
@@ -61,13 +68,34 @@ public class PatternCallQueryService {
 		return repository.getPatternCallsByPath(patternFile);
 	}
 
+	/**
+	 * Retrieves all PatternCalls whose id lies in the specified range.
+	 *
+	 * @param fromId the lowest id to include
+	 * @param toId   the highest id to include
+	 * @return a list of PatternCalls in the range in ascending id order, or an
+	 *         empty list if none found
+	 */
+	public List<PatternCall> getPatternCallsInIdRange(int fromId, int toId) {
+		return repository.getPatternCallsInIdRange(fromId, toId);
+	}
+
+	/**
+	 * Retrieves all PatternCalls in ascending id order.
+	 *
+	 * @return a list of all PatternCalls sorted by id
+	 */
+	public List<PatternCall> getPatternCallsSortedById() {
+		return repository.getPatternCallsSortedById();
+	}
+
 	/**
 	 * Retrieves all PatternCalls that are not marked as called (i.e., skipped).
 	 *
 	 * @return a list of PatternCalls that are skipped
 	 */
 	public List<PatternCall> getSkippedPatternCalls() {
-		return repository.getPatternCalls().stream().filter(p -> !p.isCalled()).collect(Collectors.toList());
+		return repository.findPatternCalls(p -> !p.isCalled(), QueryOptions.unbounded()).getPatternCalls();
 	}
 
 	/**
@@ -76,6 +104,80 @@ public class PatternCallQueryService {
 	 * @return a list of PatternCalls that are called
 	 */
 	public List<PatternCall> getCalledPatternCalls() {
-		return repository.getPatternCalls().stream().filter(PatternCall::isCalled).collect(Collectors.toList());
+		return repository.findPatternCalls(PatternCall::isCalled, QueryOptions.unbounded()).getPatternCalls();
+	}
+
+	/**
+	 * Retrieves the PatternCalls that match the specified name, within the given
+	 * limits.
+	 *
+	 * @param name    the name of the PatternCalls to retrieve
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	public QueryResult getPatternCallsByName(String name, QueryOptions options) {
+		return repository.getPatternCallsByName(name, options);
+	}
+
+	/**
+	 * Retrieves the PatternCalls that match the specified file path, within the
+	 * given limits.
+	 *
+	 * @param patternFile the file path of the PatternCalls to retrieve
+	 * @param options     the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	public QueryResult getPatternCallsByPath(String patternFile, QueryOptions options) {
+		return repository.getPatternCallsByPath(patternFile, options);
+	}
+
+	/**
+	 * Retrieves the PatternCalls whose id lies in the specified range, within the
+	 * given limits.
+	 *
+	 * @param fromId  the lowest id to include
+	 * @param toId    the highest id to include
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected in ascending id order and whether the
+	 *         query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	public QueryResult getPatternCallsInIdRange(int fromId, int toId, QueryOptions options) {
+		return repository.getPatternCallsInIdRange(fromId, toId, options);
+	}
+
+	/**
+	 * Retrieves the PatternCalls in ascending id order, within the given limits.
+	 *
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	public QueryResult getPatternCallsSortedById(QueryOptions options) {
+		return repository.getPatternCallsSortedById(options);
+	}
+
+	/**
+	 * Retrieves the PatternCalls that are skipped, within the given limits.
+	 *
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	public QueryResult getSkippedPatternCalls(QueryOptions options) {
+		return repository.findPatternCalls(p -> !p.isCalled(), options);
+	}
+
+	/**
+	 * Retrieves the PatternCalls that are called, within the given limits.
+	 *
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	public QueryResult getCalledPatternCalls(QueryOptions options) {
+		return repository.findPatternCalls(PatternCall::isCalled, options);
 	}
 }
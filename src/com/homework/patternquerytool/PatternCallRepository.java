@@ -1,15 +1,17 @@
 package com.homework.patternquerytool;
 
-import java.io.*;
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 /**
  * Class for managing and querying PatternCall objects. Supports adding
@@ -21,24 +23,77 @@ import java.util.Set;
  * options to store data in plain text or serialized format for flexibility in
  * storage and retrieval.
  * </p>
+ *
+ * <p>
+ * Pattern calls can be removed or replaced in place. A removed call leaves a
+ * tombstone (null) in its slot of the pattern call list so no other entry has
+ * to move; the list is compacted by the removal that makes tombstones half of
+ * it. Readers never compact: {@link #getPatternCalls()} hands out a snapshot
+ * that skips the tombstones.
+ * </p>
+ *
+ * <p>
+ * Changes take the repository's write lock and lookups its read lock, so one
+ * repository can be queried from several threads, e.g. by the query server or
+ * the batch runner, while it is being updated. File and directory loads parse
+ * outside the lock and only take it to insert each parsed file.
+ * </p>
+ *
+ * <p>
+ * Besides the hash indexes, a sorted ID index answers range, ordered and
+ * min/max/rank queries in O(log n) plus the size of the result. Changes update
+ * it without moving its array, see SortedIdIndex; every file of a load merges
+ * its out-of-order ids in once.
+ * </p>
+ *
+ * <p>
+ * The lookups that can return many PatternCalls also accept QueryOptions. Their
+ * scan loops check the timeout and the cancellation token as they go and stop
+ * at the result limit, so a bounded query never walks further than it has to.
+ * </p>
+ *
+ * <p>
+ * The name and path indexes are built up front by default. A repository
+ * created with the adaptive IndexPolicy instead builds them on demand, drops
+ * them when unused and caches the results of hot keys in between.
+ * </p>
  * 
  * @author soumya-s-goud
  */
-public class PatternCallRepository {
+public class PatternCallRepository implements PatternCallStore {
 
 	private final List<PatternCall> patternCallsList;
 	private final Map<Integer, PatternCall> idIndexMap; // Maps id to PatternCall
-	private final Map<String, List<PatternCall>> nameIndexMap; // Maps name to PatternCalls
-	private final Map<String, List<PatternCall>> pathIndexMap; // Maps patternFile to PatternCalls
+	private final AttributeIndex nameIndex; // Maps name to PatternCalls
+	private final AttributeIndex pathIndex; // Maps patternFile to PatternCalls
+	private final IndexPolicy indexPolicy;
+	private final AtomicLong attributeLookups = new AtomicLong(); // Name and path lookups, for dropping indexes
+	private final Map<Integer, Integer> idPositionMap; // Maps id to its slot in patternCallsList
+	private int tombstoneCount; // Removed slots in patternCallsList awaiting compaction
+	private final SortedIdIndex sortedIdIndex; // Ids in ascending order for range queries
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
 	/**
 	 * Initializes an empty repository for storing and querying PatternCall objects.
 	 */
 	public PatternCallRepository() {
+		this(IndexPolicy.eager());
+	}
+
+	/**
+	 * Initializes an empty repository whose name and path indexes are maintained
+	 * according to the given policy.
+	 *
+	 * @param indexPolicy how the name and path indexes are built and dropped
+	 */
+	public PatternCallRepository(IndexPolicy indexPolicy) {
 		patternCallsList = new ArrayList<>();
 		idIndexMap = new HashMap<>();
-		nameIndexMap = new HashMap<>();
-		pathIndexMap = new HashMap<>();
+		idPositionMap = new HashMap<>();
+		sortedIdIndex = new SortedIdIndex();
+		this.indexPolicy = indexPolicy;
+		nameIndex = new AttributeIndex(PatternCall::getName, patternCallsList, indexPolicy);
+		pathIndex = new AttributeIndex(PatternCall::getPatternFile, patternCallsList, indexPolicy);
 	}
 
 	/**
@@ -47,21 +102,150 @@ public class PatternCallRepository {
 	 *
 	 * @param patternCall the PatternCall to add
 	 */
+	@Override
 	public void addPatternCall(PatternCall patternCall) {
 		if (patternCall == null) {
 			throw new IllegalArgumentException("PatternCall cannot be null");
 		}
 
-		// Check if ID already exists
-		if (idIndexMap.containsKey(patternCall.getId())) {
-			return; // Do not add if the ID already exists
+		lock.writeLock().lock();
+		try {
+			// Check if ID already exists
+			if (idIndexMap.containsKey(patternCall.getId())) {
+				return; // Do not add if the ID already exists
+			}
+
+			// Add to the list and indexes since it's unique
+			idPositionMap.put(patternCall.getId(), patternCallsList.size());
+			patternCallsList.add(patternCall);
+			idIndexMap.put(patternCall.getId(), patternCall);
+			sortedIdIndex.added(patternCall.getId());
+			nameIndex.added(patternCall);
+			pathIndex.added(patternCall);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds the given PatternCalls under a single write lock, skipping those whose
+	 * id is already stored. The ids added out of order are merged into the
+	 * sorted id index once at the end rather than inserted one by one.
+	 *
+	 * @param patternCalls the PatternCalls to add
+	 * @return the number of PatternCalls added
+	 */
+	@Override
+	public int addPatternCalls(Collection<PatternCall> patternCalls) {
+		if (patternCalls.contains(null)) {
+			throw new IllegalArgumentException("PatternCall cannot be null");
+		}
+
+		lock.writeLock().lock();
+		try {
+			int added = 0;
+			try {
+				for (PatternCall patternCall : patternCalls) {
+					if (idIndexMap.putIfAbsent(patternCall.getId(), patternCall) == null) {
+						idPositionMap.put(patternCall.getId(), patternCallsList.size());
+						patternCallsList.add(patternCall);
+						sortedIdIndex.addedInBulk(patternCall.getId());
+						nameIndex.added(patternCall);
+						pathIndex.added(patternCall);
+						added++;
+					}
+				}
+			} finally {
+				sortedIdIndex.finishBulk();
+			}
+			return added;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the PatternCall with the specified id from the repository and all
+	 * of its indexes.
+	 *
+	 * @param id the unique identifier of the PatternCall to remove
+	 * @return true if a PatternCall was removed, false if the id was not found
+	 */
+	@Override
+	public boolean removePatternCall(int id) {
+		lock.writeLock().lock();
+		try {
+			PatternCall removed = idIndexMap.remove(id);
+			if (removed == null) {
+				return false;
+			}
+
+			patternCallsList.set(idPositionMap.remove(id), null); // Leave a tombstone
+			tombstoneCount++;
+			sortedIdIndex.removed(id);
+			nameIndex.removed(removed);
+			pathIndex.removed(removed);
+
+			if (tombstoneCount > patternCallsList.size() / 2) {
+				compact();
+			}
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Replaces the stored PatternCall having the same id as the given one, e.g.
+	 * to flip its called flag. The replacement keeps the position of the original
+	 * in {@link #getPatternCalls()}.
+	 *
+	 * @param patternCall the new version of the PatternCall
+	 * @return true if a PatternCall was replaced, false if the id was not found
+	 */
+	@Override
+	public boolean updatePatternCall(PatternCall patternCall) {
+		if (patternCall == null) {
+			throw new IllegalArgumentException("PatternCall cannot be null");
+		}
+
+		lock.writeLock().lock();
+		try {
+			PatternCall previous = idIndexMap.get(patternCall.getId());
+			if (previous == null) {
+				return false;
+			}
+
+			idIndexMap.put(patternCall.getId(), patternCall);
+			patternCallsList.set(idPositionMap.get(patternCall.getId()), patternCall);
+			nameIndex.replaced(previous, patternCall);
+			pathIndex.replaced(previous, patternCall);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
 		}
+	}
 
-		// Add to the list and indexes since it's unique
-		patternCallsList.add(patternCall);
-		idIndexMap.put(patternCall.getId(), patternCall);
-		nameIndexMap.computeIfAbsent(patternCall.getName(), k -> new ArrayList<>()).add(patternCall);
-		pathIndexMap.computeIfAbsent(patternCall.getPatternFile(), k -> new ArrayList<>()).add(patternCall);
+	/**
+	 * Applies a change set under a single write lock, so concurrent readers see
+	 * either the old or the new generation.
+	 *
+	 * @param changeSet the changes to apply
+	 */
+	@Override
+	public void applyChanges(PatternCallChangeSet changeSet) {
+		lock.writeLock().lock();
+		try {
+			for (int id : changeSet.getRemovedIds()) {
+				removePatternCall(id);
+			}
+			for (PatternCall patternCall : changeSet.getChanged()) {
+				updatePatternCall(patternCall);
+			}
+			addPatternCalls(changeSet.getAdded());
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	/**
@@ -70,8 +254,14 @@ public class PatternCallRepository {
 	 * @param id the unique identifier of the PatternCall
 	 * @return the PatternCall with the specified id, or null if not found
 	 */
+	@Override
 	public PatternCall getPatternCallById(int id) {
-		return idIndexMap.get(id);
+		lock.readLock().lock();
+		try {
+			return idIndexMap.get(id);
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -81,8 +271,17 @@ public class PatternCallRepository {
 	 * @return a list of PatternCalls with the given name, or an empty list if none
 	 *         found
 	 */
+	@Override
 	public List<PatternCall> getPatternCallsByName(String name) {
-		return nameIndexMap.getOrDefault(name, List.of());
+		List<PatternCall> patternCalls;
+		lock.readLock().lock();
+		try {
+			patternCalls = nameIndex.lookup(name);
+		} finally {
+			lock.readLock().unlock();
+		}
+		attributeLookedUp();
+		return patternCalls;
 	}
 
 	/**
@@ -92,17 +291,296 @@ public class PatternCallRepository {
 	 * @return a list of PatternCalls with the specified file path, or an empty list
 	 *         if none found
 	 */
+	@Override
 	public List<PatternCall> getPatternCallsByPath(String patternFile) {
-		return pathIndexMap.getOrDefault(patternFile, List.of());
+		List<PatternCall> patternCalls;
+		lock.readLock().lock();
+		try {
+			patternCalls = pathIndex.lookup(patternFile);
+		} finally {
+			lock.readLock().unlock();
+		}
+		attributeLookedUp();
+		return patternCalls;
 	}
 
 	/**
-	 * Retrieves all PatternCall objects stored in the repository.
+	 * Retrieves the PatternCalls with the specified name, within the given
+	 * limits.
+	 *
+	 * @param name    the name of the PatternCalls to retrieve
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	@Override
+	public QueryResult getPatternCallsByName(String name, QueryOptions options) {
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			nameIndex.lookup(name, collector);
+		} finally {
+			lock.readLock().unlock();
+		}
+		attributeLookedUp();
+		return collector.result();
+	}
+
+	/**
+	 * Retrieves the PatternCalls with the specified file path, within the given
+	 * limits.
+	 *
+	 * @param patternFile the file path of the PatternCalls to retrieve
+	 * @param options     the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	@Override
+	public QueryResult getPatternCallsByPath(String patternFile, QueryOptions options) {
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			pathIndex.lookup(patternFile, collector);
+		} finally {
+			lock.readLock().unlock();
+		}
+		attributeLookedUp();
+		return collector.result();
+	}
+
+	/**
+	 * Checks whether the name index is currently built. It always is under the
+	 * eager IndexPolicy.
+	 *
+	 * @return true if name lookups use the index
+	 */
+	public boolean isNameIndexBuilt() {
+		return nameIndex.isBuilt();
+	}
+
+	/**
+	 * Checks whether the path index is currently built. It always is under the
+	 * eager IndexPolicy.
+	 *
+	 * @return true if path lookups use the index
+	 */
+	public boolean isPathIndexBuilt() {
+		return pathIndex.isBuilt();
+	}
+
+	/**
+	 * Gets the number of lookups by name since the repository was created.
+	 *
+	 * @return the number of name lookups
+	 */
+	@Override
+	public long getNameLookupCount() {
+		return nameIndex.getLookupCount();
+	}
+
+	/**
+	 * Gets the number of lookups by file path since the repository was created.
+	 *
+	 * @return the number of path lookups
+	 */
+	@Override
+	public long getPathLookupCount() {
+		return pathIndex.getLookupCount();
+	}
+
+	/**
+	 * Retrieves all PatternCall objects whose id lies in the specified range.
+	 *
+	 * @param fromId the lowest id to include
+	 * @param toId   the highest id to include
+	 * @return the PatternCalls in the range in ascending id order, or an empty
+	 *         list if none found
+	 */
+	@Override
+	public List<PatternCall> getPatternCallsInIdRange(int fromId, int toId) {
+		lock.readLock().lock();
+		try {
+			return collectRanks(sortedIdIndex.lowerBound(fromId), sortedIdIndex.upperBound(toId));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Retrieves all PatternCall objects in ascending id order.
+	 *
+	 * @return all PatternCalls sorted by id
+	 */
+	@Override
+	public List<PatternCall> getPatternCallsSortedById() {
+		lock.readLock().lock();
+		try {
+			return collectRanks(0, sortedIdIndex.size());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Retrieves the PatternCalls whose id lies in the specified range in
+	 * ascending id order, within the given limits.
+	 *
+	 * @param fromId  the lowest id to include
+	 * @param toId    the highest id to include
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	@Override
+	public QueryResult getPatternCallsInIdRange(int fromId, int toId, QueryOptions options) {
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			collectRanks(sortedIdIndex.lowerBound(fromId), sortedIdIndex.upperBound(toId), collector);
+		} finally {
+			lock.readLock().unlock();
+		}
+		return collector.result();
+	}
+
+	/**
+	 * Retrieves the PatternCalls in ascending id order, within the given limits.
+	 *
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	@Override
+	public QueryResult getPatternCallsSortedById(QueryOptions options) {
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			collectRanks(0, sortedIdIndex.size(), collector);
+		} finally {
+			lock.readLock().unlock();
+		}
+		return collector.result();
+	}
+
+	/**
+	 * Retrieves the PatternCalls matching the filter in the order they were
+	 * added, within the given limits. The filter is applied while the
+	 * repository is locked for reading, so it must not modify the repository.
+	 *
+	 * @param filter  the condition the PatternCalls must satisfy
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	@Override
+	public QueryResult findPatternCalls(Predicate<PatternCall> filter, QueryOptions options) {
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			for (PatternCall patternCall : patternCallsList) {
+				if (!collector.scanned()) {
+					break;
+				}
+				if (patternCall != null && filter.test(patternCall) && !collector.add(patternCall)) {
+					break;
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return collector.result();
+	}
+
+	/**
+	 * Retrieves the PatternCall with the lowest id.
+	 *
+	 * @return the PatternCall with the lowest id, or null if the repository is
+	 *         empty
+	 */
+	@Override
+	public PatternCall getPatternCallWithMinId() {
+		lock.readLock().lock();
+		try {
+			return sortedIdIndex.size() == 0 ? null : idIndexMap.get(sortedIdIndex.idAt(0));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Retrieves the PatternCall with the highest id.
+	 *
+	 * @return the PatternCall with the highest id, or null if the repository is
+	 *         empty
+	 */
+	@Override
+	public PatternCall getPatternCallWithMaxId() {
+		lock.readLock().lock();
+		try {
+			return sortedIdIndex.size() == 0 ? null : idIndexMap.get(sortedIdIndex.idAt(sortedIdIndex.size() - 1));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the rank of an id, i.e. the number of stored ids lower than it. The id
+	 * itself does not need to be stored.
+	 *
+	 * @param id the id to rank
+	 * @return the number of PatternCalls with a lower id
+	 */
+	@Override
+	public int getIdRank(int id) {
+		lock.readLock().lock();
+		try {
+			return sortedIdIndex.lowerBound(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Retrieves the PatternCall at the specified position in ascending id order.
+	 *
+	 * @param rank the 0-based position in id order
+	 * @return the PatternCall with the given rank
+	 * @throws IndexOutOfBoundsException if the rank is negative or not less than
+	 *                                   the number of PatternCalls
+	 */
+	@Override
+	public PatternCall getPatternCallByIdRank(int rank) {
+		lock.readLock().lock();
+		try {
+			if (rank < 0 || rank >= sortedIdIndex.size()) {
+				throw new IndexOutOfBoundsException("Rank " + rank + " out of range for " + sortedIdIndex.size() + " ids");
+			}
+			return idIndexMap.get(sortedIdIndex.idAt(rank));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Retrieves all PatternCall objects stored in the repository, in the order
+	 * they were added. The list is a snapshot that later changes do not affect.
 	 *
 	 * @return a list of all PatternCalls in the repository
 	 */
+	@Override
 	public List<PatternCall> getPatternCalls() {
-		return patternCallsList;
+		lock.readLock().lock();
+		try {
+			List<PatternCall> snapshot = new ArrayList<>(idIndexMap.size());
+			for (PatternCall patternCall : patternCallsList) {
+				if (patternCall != null) { // Skip tombstones
+					snapshot.add(patternCall);
+				}
+			}
+			return snapshot;
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
@@ -110,65 +588,137 @@ public class PatternCallRepository {
 	 *
 	 * @return a collection of all PatternCall objects
 	 */
+	@Override
 	public Collection<PatternCall> getAllPatternCalls() {
-		return idIndexMap.values();
+		lock.readLock().lock();
+		try {
+			return new ArrayList<>(idIndexMap.values());
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 
 	/**
 	 * Reads pattern calls from a specified plain text file and stores them in
-	 * memory.
-	 * 
+	 * memory, handling invalid lines according to the given policy. The file is
+	 * parsed before the write lock is taken, so queries keep running during the
+	 * load, and its records are then added at once. Under the strict policy the
+	 * records read before the invalid line are still added.
+	 *
 	 * @param filePath the path to the text file to read from
-	 * @throws IOException if an I/O error occurs during file reading
+	 * @param policy   how invalid lines are handled
+	 * @return the report of the load, including the rejected lines
+	 * @throws IOException              if an I/O error occurs during file reading
+	 * @throws IllegalArgumentException on the first invalid line under the strict
+	 *                                  policy
 	 */
-	public void readFromFile(String filePath) throws IOException {
-		List<String> lines = Files.readAllLines(Path.of(filePath));
-		Set<Integer> seenIds = new HashSet<>(); // To track added IDs
+	@Override
+	public PatternCallLoadReport readFromFile(String filePath, ParsePolicy policy) throws IOException {
+		return PatternCallFileParser.loadBuffered(Path.of(filePath), policy, this);
+	}
 
-		for (String line : lines) {
-			String[] parts = line.split(",");
-			if (parts.length < 4)
-				continue; // Skip invalid lines
+	/**
+	 * Reads all pattern call files below the specified directory concurrently,
+	 * handling invalid lines according to the given policy. Under the strict
+	 * policy a file with an invalid line is reported and skipped as a whole.
+	 * Each file is added under the write lock once it is parsed.
+	 *
+	 * @param directoryPath the path to the directory to read from
+	 * @param policy        how invalid lines are handled
+	 * @return the report listing what was loaded, failed and rejected
+	 * @throws IOException if the directory cannot be traversed
+	 */
+	@Override
+	public PatternCallLoadReport readFromDirectory(String directoryPath, ParsePolicy policy) throws IOException {
+		return new PatternCallDirectoryLoader().load(Path.of(directoryPath), this, policy);
+	}
 
-			try {
-				int id = Integer.parseInt(parts[0].trim());
-				String name = parts[1].trim();
-				String patternFile = parts[2].trim();
-
-				// Custom logic to validate the boolean value
-				String booleanString = parts[3].trim();
-				if (!booleanString.equalsIgnoreCase("true") && !booleanString.equalsIgnoreCase("false")) {
-					throw new IllegalArgumentException("Invalid boolean value: " + booleanString);
-				}
-				boolean isActive = Boolean.parseBoolean(booleanString);
+	/**
+	 * Parses a single line of the plain text format into a PatternCall.
+	 *
+	 * @param line the line to parse
+	 * @return the parsed PatternCall, or null if the line has too few fields
+	 * @throws IllegalArgumentException if the id or the boolean value is invalid
+	 */
+	static PatternCall parseLine(String line) {
+		String[] parts = line.split(",");
+		if (parts.length < 4)
+			return null;
 
-				// Check for duplicate ID
-				if (!seenIds.contains(id)) {
-					seenIds.add(id); // Add the ID to the seen set
-					PatternCall patternCall = new PatternCall(id, name, patternFile, isActive);
-					addPatternCall(patternCall); // This will add the patternCall only if ID is unique
+		int id = Integer.parseInt(parts[0].trim());
+		String name = parts[1].trim();
+		String patternFile = parts[2].trim();
 
-				}
-			} catch (IllegalArgumentException e) {
-				// Handle the exception (could log or simply ignore it)
-				throw e; // Re-throw the exception to let the test case catch it
+		// Custom logic to validate the boolean value
+		String booleanString = parts[3].trim();
+		if (!booleanString.equalsIgnoreCase("true") && !booleanString.equalsIgnoreCase("false")) {
+			throw new IllegalArgumentException("Invalid boolean value: " + booleanString);
+		}
+		boolean isActive = Boolean.parseBoolean(booleanString);
+
+		return new PatternCall(id, name, patternFile, isActive);
+	}
+
+	/**
+	 * Gets the number of PatternCalls in the repository without copying them.
+	 *
+	 * @return the number of PatternCalls in the repository
+	 */
+	@Override
+	public int getPatternCallCount() {
+		lock.readLock().lock();
+		try {
+			return idIndexMap.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Counts a name or path lookup and, under the adaptive IndexPolicy, drops the
+	 * indexes that went unused once per drop interval.
+	 */
+	private void attributeLookedUp() {
+		if (indexPolicy.isAdaptive() && attributeLookups.incrementAndGet() % indexPolicy.getDropInterval() == 0) {
+			nameIndex.maintain();
+			pathIndex.maintain();
+		}
+	}
+
+	private List<PatternCall> collectRanks(int fromRank, int toRank) {
+		List<PatternCall> result = new ArrayList<>(Math.max(0, toRank - fromRank));
+		for (PrimitiveIterator.OfInt ids = sortedIdIndex.ids(fromRank, toRank); ids.hasNext();) {
+			result.add(idIndexMap.get(ids.nextInt()));
+		}
+		return result;
+	}
+
+	private void collectRanks(int fromRank, int toRank, QueryCollector collector) {
+		for (PrimitiveIterator.OfInt ids = sortedIdIndex.ids(fromRank, toRank); ids.hasNext();) {
+			if (!collector.scanned() || !collector.add(idIndexMap.get(ids.nextInt()))) {
+				return;
 			}
 		}
 	}
 
 	/**
-	 * Writes the current pattern calls in memory to a specified plain text file.
-	 * 
-	 * @param filePath the path to the text file to write to
-	 * @throws IOException if an I/O error occurs during file writing
+	 * Removes the tombstones from the pattern call list, moving the remaining
+	 * entries up and updating their positions. Only called with the write lock
+	 * held.
 	 */
-	public void writeToFile(String filePath) throws IOException {
-		try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-			for (PatternCall patternCall : patternCallsList) {
-				writer.write(patternCall.getId() + "," + patternCall.getName() + "," + patternCall.getPatternFile()
-						+ "," + patternCall.isCalled());
-				writer.newLine();
+	private void compact() {
+		int target = 0;
+		for (int i = 0; i < patternCallsList.size(); i++) {
+			PatternCall patternCall = patternCallsList.get(i);
+			if (patternCall != null) {
+				if (target != i) {
+					patternCallsList.set(target, patternCall);
+					idPositionMap.put(patternCall.getId(), target);
+				}
+				target++;
 			}
 		}
+		patternCallsList.subList(target, patternCallsList.size()).clear();
+		tombstoneCount = 0;
 	}
 }
@@ -0,0 +1,312 @@
+package com.homework.patternquerytool;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Store of PatternCall objects, keyed by their unique id, together with the
+ * lookups and file operations the query service, the diff, the graph and the
+ * loaders work against.
+ *
+ * <p>
+ * {@link PatternCallRepository} keeps every PatternCall in memory, while
+ * {@link SpillingPatternCallRepository} keeps them within a MemoryBudget and
+ * spills the rest to disk. Both can be queried from several threads.
+ * </p>
+ *
+ * <p>
+ * The lists and collections returned are snapshots that later changes to the
+ * store do not affect. They hold their PatternCalls on the heap, so
+ * {@link #getPatternCalls()} and {@link #getAllPatternCalls()} copy the whole
+ * store there, outside the budget of a SpillingPatternCallRepository.
+ * </p>
+ *
+ * <p>
+ * The lookups that can return many PatternCalls also accept QueryOptions and
+ * stop at the result limit, the timeout or when the query is cancelled.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public interface PatternCallStore {
+
+	/**
+	 * Adds a PatternCall unless one with the same id is already stored.
+	 *
+	 * @param patternCall the PatternCall to add
+	 * @throws IllegalArgumentException if the PatternCall is null
+	 */
+	void addPatternCall(PatternCall patternCall);
+
+	/**
+	 * Adds the given PatternCalls in one change, skipping those whose id is
+	 * already stored. Concurrent readers see either none or all of them.
+	 *
+	 * @param patternCalls the PatternCalls to add
+	 * @return the number of PatternCalls added
+	 * @throws IllegalArgumentException if one of the PatternCalls is null
+	 */
+	int addPatternCalls(Collection<PatternCall> patternCalls);
+
+	/**
+	 * Removes the PatternCall with the specified id.
+	 *
+	 * @param id the unique identifier of the PatternCall to remove
+	 * @return true if a PatternCall was removed, false if the id was not found
+	 */
+	boolean removePatternCall(int id);
+
+	/**
+	 * Replaces the stored PatternCall having the same id as the given one,
+	 * keeping its position in {@link #getPatternCalls()}.
+	 *
+	 * @param patternCall the new version of the PatternCall
+	 * @return true if a PatternCall was replaced, false if the id was not found
+	 * @throws IllegalArgumentException if the PatternCall is null
+	 */
+	boolean updatePatternCall(PatternCall patternCall);
+
+	/**
+	 * Applies a change set in one change: removes its removed IDs, replaces its
+	 * changed PatternCalls and adds its added ones. Concurrent readers see either
+	 * the old or the new generation, never a mix of both.
+	 *
+	 * @param changeSet the changes to apply
+	 */
+	void applyChanges(PatternCallChangeSet changeSet);
+
+	/**
+	 * Retrieves a PatternCall by its unique identifier.
+	 *
+	 * @param id the unique identifier of the PatternCall
+	 * @return the PatternCall with the specified id, or null if not found
+	 */
+	PatternCall getPatternCallById(int id);
+
+	/**
+	 * Retrieves all PatternCall objects with the specified name.
+	 *
+	 * @param name the name of the PatternCalls to retrieve
+	 * @return a list of PatternCalls with the given name, or an empty list if none
+	 *         found
+	 */
+	List<PatternCall> getPatternCallsByName(String name);
+
+	/**
+	 * Retrieves all PatternCall objects with the specified file path.
+	 *
+	 * @param patternFile the file path of the PatternCalls to retrieve
+	 * @return a list of PatternCalls with the specified file path, or an empty list
+	 *         if none found
+	 */
+	List<PatternCall> getPatternCallsByPath(String patternFile);
+
+	/**
+	 * Retrieves the PatternCalls with the specified name, within the given
+	 * limits.
+	 *
+	 * @param name    the name of the PatternCalls to retrieve
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	QueryResult getPatternCallsByName(String name, QueryOptions options);
+
+	/**
+	 * Retrieves the PatternCalls with the specified file path, within the given
+	 * limits.
+	 *
+	 * @param patternFile the file path of the PatternCalls to retrieve
+	 * @param options     the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	QueryResult getPatternCallsByPath(String patternFile, QueryOptions options);
+
+	/**
+	 * Gets the number of lookups by name since the store was created.
+	 *
+	 * @return the number of name lookups
+	 */
+	long getNameLookupCount();
+
+	/**
+	 * Gets the number of lookups by file path since the store was created.
+	 *
+	 * @return the number of path lookups
+	 */
+	long getPathLookupCount();
+
+	/**
+	 * Retrieves all PatternCall objects whose id lies in the specified range.
+	 *
+	 * @param fromId the lowest id to include
+	 * @param toId   the highest id to include
+	 * @return the PatternCalls in the range in ascending id order, or an empty
+	 *         list if none found
+	 */
+	List<PatternCall> getPatternCallsInIdRange(int fromId, int toId);
+
+	/**
+	 * Retrieves all PatternCall objects in ascending id order.
+	 *
+	 * @return all PatternCalls sorted by id
+	 */
+	List<PatternCall> getPatternCallsSortedById();
+
+	/**
+	 * Retrieves the PatternCalls whose id lies in the specified range in
+	 * ascending id order, within the given limits.
+	 *
+	 * @param fromId  the lowest id to include
+	 * @param toId    the highest id to include
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	QueryResult getPatternCallsInIdRange(int fromId, int toId, QueryOptions options);
+
+	/**
+	 * Retrieves the PatternCalls in ascending id order, within the given limits.
+	 *
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	QueryResult getPatternCallsSortedById(QueryOptions options);
+
+	/**
+	 * Retrieves the PatternCalls matching the filter in the order they were
+	 * added, within the given limits. The filter must not modify the store.
+	 *
+	 * @param filter  the condition the PatternCalls must satisfy
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	QueryResult findPatternCalls(Predicate<PatternCall> filter, QueryOptions options);
+
+	/**
+	 * Retrieves the PatternCall with the lowest id.
+	 *
+	 * @return the PatternCall with the lowest id, or null if the store is empty
+	 */
+	PatternCall getPatternCallWithMinId();
+
+	/**
+	 * Retrieves the PatternCall with the highest id.
+	 *
+	 * @return the PatternCall with the highest id, or null if the store is empty
+	 */
+	PatternCall getPatternCallWithMaxId();
+
+	/**
+	 * Gets the rank of an id, i.e. the number of stored ids lower than it. The id
+	 * itself does not need to be stored.
+	 *
+	 * @param id the id to rank
+	 * @return the number of PatternCalls with a lower id
+	 */
+	int getIdRank(int id);
+
+	/**
+	 * Retrieves the PatternCall at the specified position in ascending id order.
+	 *
+	 * @param rank the 0-based position in id order
+	 * @return the PatternCall with the given rank
+	 * @throws IndexOutOfBoundsException if the rank is negative or not less than
+	 *                                   the number of PatternCalls
+	 */
+	PatternCall getPatternCallByIdRank(int rank);
+
+	/**
+	 * Retrieves all PatternCall objects stored, in the order they were added.
+	 * The list is a snapshot that later changes do not affect.
+	 *
+	 * @return a list of all PatternCalls in the store
+	 */
+	List<PatternCall> getPatternCalls();
+
+	/**
+	 * Retrieves all PatternCall objects stored. The collection is a snapshot
+	 * that later changes do not affect.
+	 *
+	 * @return a collection of all PatternCall objects
+	 */
+	Collection<PatternCall> getAllPatternCalls();
+
+	/**
+	 * Gets the number of stored PatternCalls without retrieving them.
+	 *
+	 * @return the number of PatternCalls in the store
+	 */
+	int getPatternCallCount();
+
+	/**
+	 * Reads pattern calls from a specified plain text file into the store.
+	 *
+	 * @param filePath the path to the text file to read from
+	 * @throws IOException if an I/O error occurs during file reading
+	 */
+	default void readFromFile(String filePath) throws IOException {
+		readFromFile(filePath, ParsePolicy.strict());
+	}
+
+	/**
+	 * Reads pattern calls from a specified plain text file into the store,
+	 * handling invalid lines according to the given policy. Under the strict
+	 * policy the records read before the invalid line stay in the store.
+	 *
+	 * @param filePath the path to the text file to read from
+	 * @param policy   how invalid lines are handled
+	 * @return the report of the load, including the rejected lines
+	 * @throws IOException              if an I/O error occurs during file reading
+	 * @throws IllegalArgumentException on the first invalid line under the strict
+	 *                                  policy
+	 */
+	PatternCallLoadReport readFromFile(String filePath, ParsePolicy policy) throws IOException;
+
+	/**
+	 * Reads all pattern call files below the specified directory into the store,
+	 * using the strict ParsePolicy, see {@link PatternCallDirectoryLoader}.
+	 *
+	 * @param directoryPath the path to the directory to read from
+	 * @return the report listing what was loaded and which files failed
+	 * @throws IOException if the directory cannot be traversed
+	 */
+	default PatternCallLoadReport readFromDirectory(String directoryPath) throws IOException {
+		return readFromDirectory(directoryPath, ParsePolicy.strict());
+	}
+
+	/**
+	 * Reads all pattern call files below the specified directory into the store,
+	 * handling invalid lines according to the given policy, see
+	 * {@link PatternCallDirectoryLoader}.
+	 *
+	 * @param directoryPath the path to the directory to read from
+	 * @param policy        how invalid lines are handled
+	 * @return the report listing what was loaded, failed and rejected
+	 * @throws IOException if the directory cannot be traversed
+	 */
+	PatternCallLoadReport readFromDirectory(String directoryPath, ParsePolicy policy) throws IOException;
+
+	/**
+	 * Writes the stored pattern calls to a specified plain text file, in the
+	 * order they were added.
+	 *
+	 * @param filePath the path to the text file to write to
+	 * @throws IOException if an I/O error occurs during file writing
+	 */
+	default void writeToFile(String filePath) throws IOException {
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+			for (PatternCall patternCall : getPatternCalls()) {
+				writer.write(patternCall.toRecordLine());
+				writer.newLine();
+			}
+		}
+	}
+}
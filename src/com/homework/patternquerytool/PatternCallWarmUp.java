@@ -0,0 +1,139 @@
+package com.homework.patternquerytool;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the file parser and the query paths over a generated data set, so their
+ * classes are loaded and their hot methods are compiled before real traffic
+ * arrives.
+ *
+ * <p>
+ * Main runs it for {@code --warmup}, and the {@code appcds} Maven profile runs
+ * it while recording the class-data-sharing archive, so the archive contains
+ * every class the parser and queries need. {@link #run(MemoryBudget)} warms
+ * only the query paths, of an in-memory or a spilling repository; Main runs it
+ * for the kind of repository loaded by {@code serve} and {@code query}. It
+ * queries a small private repository rather than the loaded one, so the
+ * warm-up neither pages in the loaded segments nor feeds its lookup counters
+ * and hot-key caches.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallWarmUp {
+
+	private final int records;
+	private final int iterations;
+
+	/**
+	 * Creates a warm-up over 10,000 generated records, repeated 5 times.
+	 */
+	public PatternCallWarmUp() {
+		this(10_000, 5);
+	}
+
+	/**
+	 * Creates a warm-up over the given number of generated records, repeated the
+	 * given number of times.
+	 *
+	 * @param records    the number of records in the generated file
+	 * @param iterations the number of load and query passes
+	 */
+	public PatternCallWarmUp(int records, int iterations) {
+		if (records < 1 || iterations < 1) {
+			throw new IllegalArgumentException("Records and iterations must be positive");
+		}
+		this.records = records;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Runs the warm-up passes.
+	 *
+	 * @return the time the warm-up took
+	 * @throws IOException if the generated file cannot be written or read
+	 */
+	public Duration run() throws IOException {
+		long start = System.nanoTime();
+		Path file = Files.createTempFile("patternCallWarmUp", ".txt");
+		try {
+			try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+				for (int id = 0; id < records; id++) {
+					writer.write(record(id).toRecordLine());
+					writer.newLine();
+				}
+				writer.write("invalid,line,src/patterns/Invalid.pat,notBoolean");
+				writer.newLine();
+			}
+
+			for (int i = 0; i < iterations; i++) {
+				PatternCallRepository repository = new PatternCallRepository();
+				repository.readFromFile(file.toString(), ParsePolicy.skip());
+				query(repository);
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+		return Duration.ofNanos(System.nanoTime() - start);
+	}
+
+	/**
+	 * Runs the query passes against a private repository of generated records,
+	 * kept in memory or, given a budget, spilled in segments like a repository
+	 * loaded with that budget. Only the kind of repository depends on the
+	 * budget; the private one gets a small budget of its own and a temporary
+	 * spill directory, so that its segments are paged in and out.
+	 *
+	 * @param budget the memory budget of the repository to warm up for, or null
+	 *               for an in-memory repository
+	 * @return the time the warm-up took
+	 * @throws IOException if the spill directory cannot be created or used
+	 */
+	public Duration run(MemoryBudget budget) throws IOException {
+		long start = System.nanoTime();
+		List<PatternCall> generated = new ArrayList<>(records);
+		for (int id = 0; id < records; id++) {
+			generated.add(record(id));
+		}
+		PatternCallStore repository = budget == null ? new PatternCallRepository()
+				: new SpillingPatternCallRepository(
+						MemoryBudget.ofBytes(records * 64L).withSegmentSize(Math.max(1, records / 20)));
+		try {
+			repository.addPatternCalls(generated);
+			for (int i = 0; i < iterations; i++) {
+				query(repository);
+			}
+		} finally {
+			if (repository instanceof SpillingPatternCallRepository) {
+				((SpillingPatternCallRepository) repository).close();
+			}
+		}
+		return Duration.ofNanos(System.nanoTime() - start);
+	}
+
+	private static PatternCall record(int id) {
+		return new PatternCall(id, "pattern" + (id % 100), "src/patterns/Pattern" + (id % 50) + ".pat", id % 3 != 0);
+	}
+
+	private void query(PatternCallStore repository) {
+		PatternCallQueryService queryService = new PatternCallQueryService(repository);
+		for (int id = 0; id < records; id += 7) {
+			PatternCallQuery.parse("id " + id).execute(queryService);
+		}
+		for (int n = 0; n < 100; n++) {
+			PatternCallQuery.parse("name pattern" + n).execute(queryService);
+			PatternCallQuery.parse("path src/patterns/Pattern" + (n % 50) + ".pat").execute(queryService);
+			PatternCallQuery.parse("range " + n * 10 + " " + (n * 10 + 50)).execute(queryService);
+		}
+		PatternCallQuery.parse("skipped").execute(queryService);
+		PatternCallQuery.parse("called").execute(queryService);
+		queryService.getSkippedPatternCalls(QueryOptions.unbounded().withMaxResults(100));
+		queryService.getPatternCallsByName("pattern0", QueryOptions.unbounded().withMaxResults(10));
+	}
+}
@@ -0,0 +1,33 @@
+package com.homework.patternquerytool;
+
+/**
+ * Thrown by a query run with {@link QueryOptions#failFast()} when it hits one
+ * of its limits.
+ *
+ * @author soumya-s-goud
+ */
+public class QueryAbortedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final QueryResult.Status status;
+
+	/**
+	 * Constructs a QueryAbortedException for the limit that was hit.
+	 *
+	 * @param status the reason the query stopped
+	 */
+	public QueryAbortedException(QueryResult.Status status) {
+		super("Query aborted: " + status);
+		this.status = status;
+	}
+
+	/**
+	 * Gets the reason the query stopped.
+	 *
+	 * @return TRUNCATED, TIMED_OUT or CANCELLED
+	 */
+	public QueryResult.Status getStatus() {
+		return status;
+	}
+}
@@ -0,0 +1,96 @@
+package com.homework.patternquerytool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the matches of one query run with QueryOptions, telling the scan
+ * loop of the repository when to stop.
+ *
+ * <p>
+ * The loop calls {@link #scanned()} for every PatternCall it visits and
+ * {@link #add(PatternCall)} for every match, and stops as soon as either
+ * returns false. The timeout and the cancellation token are checked every
+ * {@value #CHECK_INTERVAL} scanned PatternCalls, starting with the first, so
+ * a query stops within that many steps of hitting one.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+class QueryCollector {
+
+	static final int CHECK_INTERVAL = 1024;
+
+	private final QueryOptions options;
+	private final long start = System.nanoTime();
+	private final long timeout;
+	private final List<PatternCall> matches = new ArrayList<>();
+	private QueryResult.Status status = QueryResult.Status.COMPLETE;
+	private int scanned;
+
+	QueryCollector(QueryOptions options) {
+		this.options = options;
+		this.timeout = options.getTimeout() == null ? Long.MAX_VALUE : options.getTimeout().toNanos();
+	}
+
+	/**
+	 * Counts a visited PatternCall, returning false once the query was
+	 * cancelled or timed out.
+	 */
+	boolean scanned() {
+		if (scanned++ % CHECK_INTERVAL == 0) {
+			CancellationToken token = options.getCancellationToken();
+			if (token != null && token.isCancelled()) {
+				status = QueryResult.Status.CANCELLED;
+				return false;
+			}
+			if (System.nanoTime() - start >= timeout) {
+				status = QueryResult.Status.TIMED_OUT;
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a match, returning false instead if the result is already full.
+	 */
+	boolean add(PatternCall patternCall) {
+		if (matches.size() == options.getMaxResults()) {
+			status = QueryResult.Status.TRUNCATED;
+			return false;
+		}
+		matches.add(patternCall);
+		return true;
+	}
+
+	/**
+	 * Returns how many more matches fit the result.
+	 */
+	int remaining() {
+		return options.getMaxResults() - matches.size();
+	}
+
+	boolean isComplete() {
+		return status == QueryResult.Status.COMPLETE;
+	}
+
+	/**
+	 * Returns the matches collected so far.
+	 */
+	List<PatternCall> matches() {
+		return matches;
+	}
+
+	/**
+	 * Returns the result of the query.
+	 *
+	 * @throws QueryAbortedException if a limit was hit and the options fail fast
+	 */
+	QueryResult result() {
+		if (!isComplete() && options.isFailFast()) {
+			throw new QueryAbortedException(status);
+		}
+		return new QueryResult(matches, status);
+	}
+}
@@ -0,0 +1,124 @@
+package com.homework.patternquerytool;
+
+import java.time.Duration;
+
+/**
+ * This class bounds the work a single query in PatternCallQueryService may do:
+ * a timeout, a maximum number of results and a CancellationToken.
+ *
+ * <p>
+ * When a limit is hit the query stops and returns the results collected so far
+ * in a QueryResult telling which limit was hit. With {@link #failFast()} it
+ * throws a QueryAbortedException instead. The timeout is measured from the
+ * start of each query, so the same options can be reused.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class QueryOptions {
+
+	private static final QueryOptions UNBOUNDED = new QueryOptions(null, Integer.MAX_VALUE, null, false);
+
+	private final Duration timeout;
+	private final int maxResults;
+	private final CancellationToken cancellationToken;
+	private final boolean failFast;
+
+	private QueryOptions(Duration timeout, int maxResults, CancellationToken cancellationToken, boolean failFast) {
+		this.timeout = timeout;
+		this.maxResults = maxResults;
+		this.cancellationToken = cancellationToken;
+		this.failFast = failFast;
+	}
+
+	/**
+	 * Returns options without any limit.
+	 *
+	 * @return the unbounded options
+	 */
+	public static QueryOptions unbounded() {
+		return UNBOUNDED;
+	}
+
+	/**
+	 * Returns a copy of these options with the given timeout.
+	 *
+	 * @param timeout the maximum time a query may run
+	 * @return the adjusted options
+	 */
+	public QueryOptions withTimeout(Duration timeout) {
+		if (timeout == null || timeout.isNegative()) {
+			throw new IllegalArgumentException("Timeout must not be null or negative");
+		}
+		return new QueryOptions(timeout, maxResults, cancellationToken, failFast);
+	}
+
+	/**
+	 * Returns a copy of these options with the given result limit.
+	 *
+	 * @param maxResults the maximum number of PatternCalls a query may return
+	 * @return the adjusted options
+	 */
+	public QueryOptions withMaxResults(int maxResults) {
+		if (maxResults < 0) {
+			throw new IllegalArgumentException("Max results cannot be negative");
+		}
+		return new QueryOptions(timeout, maxResults, cancellationToken, failFast);
+	}
+
+	/**
+	 * Returns a copy of these options observing the given cancellation token.
+	 *
+	 * @param cancellationToken the token to observe
+	 * @return the adjusted options
+	 */
+	public QueryOptions withCancellationToken(CancellationToken cancellationToken) {
+		return new QueryOptions(timeout, maxResults, cancellationToken, failFast);
+	}
+
+	/**
+	 * Returns a copy of these options that throw a QueryAbortedException when a
+	 * limit is hit instead of returning partial results.
+	 *
+	 * @return the adjusted options
+	 */
+	public QueryOptions failFast() {
+		return new QueryOptions(timeout, maxResults, cancellationToken, true);
+	}
+
+	/**
+	 * Gets the maximum time a query may run.
+	 *
+	 * @return the timeout, or null if there is none
+	 */
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Gets the maximum number of PatternCalls a query may return.
+	 *
+	 * @return the result limit, Integer.MAX_VALUE if there is none
+	 */
+	public int getMaxResults() {
+		return maxResults;
+	}
+
+	/**
+	 * Gets the token observed for cancellation.
+	 *
+	 * @return the cancellation token, or null if there is none
+	 */
+	public CancellationToken getCancellationToken() {
+		return cancellationToken;
+	}
+
+	/**
+	 * Checks whether a query throws instead of returning partial results.
+	 *
+	 * @return true if queries fail fast
+	 */
+	public boolean isFailFast() {
+		return failFast;
+	}
+}
@@ -0,0 +1,69 @@
+package com.homework.patternquerytool;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds the PatternCalls returned by a query run with QueryOptions,
+ * together with whether the query completed or which limit stopped it.
+ *
+ * @author soumya-s-goud
+ */
+public class QueryResult {
+
+	/**
+	 * How a query ended.
+	 */
+	public enum Status {
+		/** All matches were collected. */
+		COMPLETE,
+		/** The result limit was reached before all matches were collected. */
+		TRUNCATED,
+		/** The timeout expired. */
+		TIMED_OUT,
+		/** The cancellation token was cancelled. */
+		CANCELLED
+	}
+
+	private final List<PatternCall> patternCalls;
+	private final Status status;
+
+	/**
+	 * Constructs a QueryResult.
+	 *
+	 * @param patternCalls the PatternCalls collected
+	 * @param status       how the query ended
+	 */
+	public QueryResult(List<PatternCall> patternCalls, Status status) {
+		this.patternCalls = Collections.unmodifiableList(patternCalls);
+		this.status = status;
+	}
+
+	/**
+	 * Gets the PatternCalls collected, which are all matches only if the query
+	 * is complete.
+	 *
+	 * @return the collected PatternCalls
+	 */
+	public List<PatternCall> getPatternCalls() {
+		return patternCalls;
+	}
+
+	/**
+	 * Gets how the query ended.
+	 *
+	 * @return the status
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Checks whether all matches were collected.
+	 *
+	 * @return true if the status is COMPLETE
+	 */
+	public boolean isComplete() {
+		return status == Status.COMPLETE;
+	}
+}
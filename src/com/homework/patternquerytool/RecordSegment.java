@@ -0,0 +1,343 @@
+package com.homework.patternquerytool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A run of consecutively added PatternCalls of a SpillingPatternCallRepository
+ * together with their posting lists by id, name and path.
+ *
+ * <p>
+ * A segment is either resident, holding its records on the heap, or spilled,
+ * holding only the Bloom filters while its records live in its segment file.
+ * Paging in reads the whole file into a heap buffer and decodes it, as every
+ * lookup needs the full record list anyway. While resident, each id's slot in
+ * the record list is kept, the way AttributeIndex keeps posting list slots, so
+ * a removal leaves a tombstone (null) in its slot and a replacement overwrites
+ * it; the list is compacted once tombstones make up half of it. Removals from
+ * a spilled segment are only noted and applied when it is paged in again. The
+ * name and path indexes are built on the first keyed lookup after the records
+ * were paged in, kept current by later changes and dropped with the records.
+ * Bloom filters over the names and paths stay resident, so lookups only page
+ * in segments that may contain the key. A segment is only written again when
+ * it changed since it was last spilled, and only its live records are written.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+class RecordSegment {
+
+	private static final int FILTER_HASHES = 3;
+
+	/**
+	 * Estimated heap taken by a PatternCall beyond its two strings' characters:
+	 * the object, two string headers and their arrays, the list slot, the entry
+	 * of the id slot map and the entries of the name and path indexes.
+	 */
+	private static final int RECORD_OVERHEAD = 280;
+
+	private final Path file;
+	private final int capacity;
+	private final BitSet nameFilter;
+	private final BitSet pathFilter;
+
+	private List<PatternCall> records; // null while spilled, may contain tombstones
+	private Map<Integer, Integer> slots; // Maps id to its slot in records, null while spilled
+	private int tombstoneCount; // Removed slots in records awaiting compaction
+	private AttributeIndex byName; // Built on demand while resident
+	private AttributeIndex byPath;
+	private final Set<Integer> removedWhileSpilled = new HashSet<>(); // Applied by the next page-in
+	private boolean written; // The segment file exists
+	private boolean dirty = true; // Changed since the segment file was written
+	private int size;
+	private long estimatedBytes;
+
+	RecordSegment(Path file, int capacity) {
+		this.file = file;
+		this.capacity = capacity;
+		this.records = new ArrayList<>(capacity);
+		this.slots = new HashMap<>();
+		this.nameFilter = new BitSet(filterBits());
+		this.pathFilter = new BitSet(filterBits());
+	}
+
+	boolean isResident() {
+		return records != null;
+	}
+
+	boolean isFull() {
+		return size >= capacity;
+	}
+
+	int size() {
+		return size;
+	}
+
+	long getEstimatedBytes() {
+		return estimatedBytes;
+	}
+
+	/**
+	 * Returns the records of the resident segment in the order they were added,
+	 * with tombstones (null) where records were removed.
+	 */
+	List<PatternCall> records() {
+		return records;
+	}
+
+	void add(PatternCall patternCall) {
+		slots.put(patternCall.getId(), records.size());
+		records.add(patternCall);
+		size++;
+		estimatedBytes += estimateSize(patternCall);
+		addToFilters(patternCall);
+		if (byName != null) {
+			byName.added(patternCall);
+			byPath.added(patternCall);
+		}
+		dirty = true;
+	}
+
+	/**
+	 * Removes the record with the given id, which the caller knows to be in this
+	 * segment. A spilled segment only notes the removal for its next page-in.
+	 */
+	void remove(int id) {
+		dirty = true;
+		size--;
+		if (records == null) {
+			removedWhileSpilled.add(id);
+			return;
+		}
+
+		PatternCall removed = records.set(slots.remove(id), null); // Leave a tombstone
+		tombstoneCount++;
+		estimatedBytes -= estimateSize(removed);
+		if (byName != null) {
+			byName.removed(removed);
+			byPath.removed(removed);
+		}
+		if (tombstoneCount > records.size() / 2) {
+			compact();
+		}
+	}
+
+	/**
+	 * Replaces the record having the same id as the given one in the resident
+	 * segment, which the caller knows to hold it.
+	 */
+	void replace(PatternCall patternCall) {
+		PatternCall previous = records.set(slots.get(patternCall.getId()), patternCall);
+		estimatedBytes += estimateSize(patternCall) - estimateSize(previous);
+		addToFilters(patternCall);
+		if (byName != null) {
+			byName.replaced(previous, patternCall);
+			byPath.replaced(previous, patternCall);
+		}
+		dirty = true;
+	}
+
+	PatternCall get(int id) {
+		Integer slot = slots.get(id);
+		return slot == null ? null : records.get(slot);
+	}
+
+	List<PatternCall> getByName(String name) {
+		if (byName == null) {
+			buildIndexes();
+		}
+		return byName.lookup(name);
+	}
+
+	List<PatternCall> getByPath(String patternFile) {
+		if (byPath == null) {
+			buildIndexes();
+		}
+		return byPath.lookup(patternFile);
+	}
+
+	boolean mightContainName(String name) {
+		return mightContain(nameFilter, name);
+	}
+
+	boolean mightContainPath(String patternFile) {
+		return mightContain(pathFilter, patternFile);
+	}
+
+	/**
+	 * Releases the records, writing the segment file first if the segment
+	 * changed since it was last written.
+	 */
+	void spill() throws IOException {
+		if (dirty || !written) {
+			Files.write(file, encode(records, size));
+			written = true;
+			dirty = false;
+		}
+		records = null;
+		slots = null;
+		tombstoneCount = 0;
+		byName = null;
+		byPath = null;
+	}
+
+	/**
+	 * Reads the segment file and decodes its records, leaving out those removed
+	 * while the segment was spilled.
+	 */
+	void pageIn() throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+		int count = buffer.getInt();
+		List<PatternCall> decoded = new ArrayList<>(Math.max(count, capacity));
+		Map<Integer, Integer> decodedSlots = new HashMap<>();
+		long bytes = 0;
+		for (int i = 0; i < count; i++) {
+			int id = buffer.getInt();
+			boolean called = buffer.get() != 0;
+			String name = readString(buffer);
+			String patternFile = readString(buffer);
+			if (!removedWhileSpilled.contains(id)) {
+				PatternCall patternCall = new PatternCall(id, name, patternFile, called);
+				decodedSlots.put(id, decoded.size());
+				decoded.add(patternCall);
+				bytes += estimateSize(patternCall);
+			}
+		}
+		removedWhileSpilled.clear();
+		records = decoded;
+		slots = decodedSlots;
+		estimatedBytes = bytes;
+	}
+
+	/**
+	 * Deletes the segment file.
+	 */
+	void delete() throws IOException {
+		written = false;
+		Files.deleteIfExists(file);
+	}
+
+	static long estimateSize(PatternCall patternCall) {
+		return RECORD_OVERHEAD + length(patternCall.getName()) + length(patternCall.getPatternFile());
+	}
+
+	private void buildIndexes() {
+		byName = new AttributeIndex(PatternCall::getName, records, IndexPolicy.eager());
+		byPath = new AttributeIndex(PatternCall::getPatternFile, records, IndexPolicy.eager());
+		for (PatternCall patternCall : records) {
+			if (patternCall != null) {
+				byName.added(patternCall);
+				byPath.added(patternCall);
+			}
+		}
+	}
+
+	/**
+	 * Removes the tombstones from the record list, moving the remaining records
+	 * up and updating their slots. The name and path indexes keep the records
+	 * themselves, so they are not affected.
+	 */
+	private void compact() {
+		int target = 0;
+		for (int i = 0; i < records.size(); i++) {
+			PatternCall patternCall = records.get(i);
+			if (patternCall != null) {
+				if (target != i) {
+					records.set(target, patternCall);
+					slots.put(patternCall.getId(), target);
+				}
+				target++;
+			}
+		}
+		records.subList(target, records.size()).clear();
+		tombstoneCount = 0;
+	}
+
+	private void addToFilters(PatternCall patternCall) {
+		int bits = filterBits();
+		int nameHash = Objects.hashCode(patternCall.getName());
+		int pathHash = Objects.hashCode(patternCall.getPatternFile());
+		for (int i = 0; i < FILTER_HASHES; i++) {
+			nameFilter.set(filterBit(nameHash, i, bits));
+			pathFilter.set(filterBit(pathHash, i, bits));
+		}
+	}
+
+	private boolean mightContain(BitSet filter, String key) {
+		int bits = filterBits();
+		int hash = Objects.hashCode(key);
+		for (int i = 0; i < FILTER_HASHES; i++) {
+			if (!filter.get(filterBit(hash, i, bits))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sizes the filters at 8 bits per record, which with three hashes gives about
+	 * 3% false positives when every record has a distinct key.
+	 */
+	private int filterBits() {
+		return Math.max(64, capacity * 8);
+	}
+
+	private static int filterBit(int hash, int i, int bits) {
+		int second = Integer.rotateLeft(hash * 0x9E3779B9, 16) | 1; // Double hashing
+		return Math.floorMod(hash + i * second, bits);
+	}
+
+	private static byte[] encode(List<PatternCall> records, int size) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(size * 64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(size);
+			for (PatternCall patternCall : records) {
+				if (patternCall == null) {
+					continue; // Skip tombstones
+				}
+				out.writeInt(patternCall.getId());
+				out.writeBoolean(patternCall.isCalled());
+				writeString(out, patternCall.getName());
+				writeString(out, patternCall.getPatternFile());
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(encoded.length);
+		out.write(encoded);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] encoded = new byte[length];
+		buffer.get(encoded);
+		return new String(encoded, StandardCharsets.UTF_8);
+	}
+
+	private static int length(String value) {
+		return value == null ? 0 : value.length();
+	}
+}
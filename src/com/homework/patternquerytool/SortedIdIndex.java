@@ -0,0 +1,334 @@
+package com.homework.patternquerytool;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Sorted primitive array of the IDs in a PatternCallStore, answering range,
+ * rank and min/max questions by binary search.
+ *
+ * <p>
+ * No single change moves the array. IDs added in ascending order are appended,
+ * and a removed ID only marks its slot dead; a Fenwick tree counting the live
+ * slots turns positions into ranks and back in O(log n). IDs added out of
+ * order go to a small sorted side array of about sqrt(n) IDs, which rank and
+ * range lookups merge with the main array on the fly. Once the side array is
+ * full or half of the main array is dead, both are merged into a new main
+ * array in one linear pass without sorting, so a change costs O(log n) plus
+ * amortized O(sqrt(n)) at worst. During a bulk load out-of-order IDs are
+ * collected instead and merged once by {@link #finishBulk()}.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+class SortedIdIndex {
+
+	private static final int MIN_PENDING = 64;
+
+	private int[] ids = new int[16]; // Sorted, dead slots included
+	private int length; // Slots used in ids
+	private int[] liveCounts = new int[17]; // Fenwick tree over the live slots of ids, 1-based
+	private final BitSet dead = new BitSet();
+	private int deadCount;
+	private int[] pending = new int[MIN_PENDING]; // Sorted IDs added out of order
+	private int pendingSize;
+	private int[] deferred = new int[0]; // Out-of-order IDs of the running bulk load
+	private int deferredSize;
+
+	/**
+	 * Records an added ID.
+	 */
+	void added(int id) {
+		if (length == 0 || id > ids[length - 1]) {
+			append(id);
+			return;
+		}
+		int position = lowerBound(ids, 0, length, id);
+		if (position < length && ids[position] == id) {
+			if (dead.get(position)) { // Added again after its removal
+				dead.clear(position);
+				deadCount--;
+				updateLiveCount(position, 1);
+			}
+			return;
+		}
+
+		int slot = lowerBound(pending, 0, pendingSize, id);
+		if (pendingSize == pending.length) {
+			pending = Arrays.copyOf(pending, pendingSize * 2);
+		}
+		System.arraycopy(pending, slot, pending, slot + 1, pendingSize - slot);
+		pending[slot] = id;
+		pendingSize++;
+		if (pendingSize > Math.max(MIN_PENDING, (int) Math.sqrt(length))) {
+			merge(null, 0);
+		}
+	}
+
+	/**
+	 * Records an ID added by a bulk load, appending it if it keeps the array
+	 * sorted and deferring it to {@link #finishBulk()} otherwise. Lookups do not
+	 * see deferred IDs until then.
+	 */
+	void addedInBulk(int id) {
+		if (length == 0 || id > ids[length - 1]) {
+			append(id);
+			return;
+		}
+		if (deferredSize == deferred.length) {
+			deferred = Arrays.copyOf(deferred, Math.max(16, deferredSize * 2));
+		}
+		deferred[deferredSize++] = id;
+	}
+
+	/**
+	 * Ends a bulk load, sorting the deferred IDs and merging them in.
+	 */
+	void finishBulk() {
+		if (deferredSize == 0) {
+			return;
+		}
+		int[] batch = deferred;
+		int count = deferredSize;
+		deferred = new int[0];
+		deferredSize = 0;
+		if (count <= MIN_PENDING) {
+			for (int i = 0; i < count; i++) {
+				added(batch[i]);
+			}
+		} else {
+			Arrays.parallelSort(batch, 0, count);
+			merge(batch, count);
+		}
+	}
+
+	/**
+	 * Records a removed ID, marking its slot dead.
+	 */
+	void removed(int id) {
+		int position = lowerBound(ids, 0, length, id);
+		if (position < length && ids[position] == id) {
+			if (!dead.get(position)) {
+				dead.set(position);
+				deadCount++;
+				updateLiveCount(position, -1);
+				if (deadCount > length / 2) {
+					merge(null, 0);
+				}
+			}
+			return;
+		}
+		int slot = lowerBound(pending, 0, pendingSize, id);
+		if (slot < pendingSize && pending[slot] == id) {
+			System.arraycopy(pending, slot + 1, pending, slot, pendingSize - slot - 1);
+			pendingSize--;
+		}
+	}
+
+	int size() {
+		return length - deadCount + pendingSize;
+	}
+
+	/**
+	 * Returns the ID with the given rank, i.e. position in ascending order.
+	 */
+	int idAt(int rank) {
+		int fromPending = pendingAmongSmallest(rank + 1);
+		int fromMain = rank + 1 - fromPending;
+		if (fromPending == 0) {
+			return ids[liveSlot(fromMain - 1)];
+		}
+		if (fromMain == 0) {
+			return pending[fromPending - 1];
+		}
+		return Math.max(ids[liveSlot(fromMain - 1)], pending[fromPending - 1]);
+	}
+
+	/**
+	 * Iterates over the IDs with ranks {@code [fromRank, toRank)} in ascending
+	 * order.
+	 */
+	PrimitiveIterator.OfInt ids(int fromRank, int toRank) {
+		int fromPending = pendingAmongSmallest(fromRank);
+		int fromMain = fromRank - fromPending;
+		int start = fromMain < length - deadCount ? liveSlot(fromMain) : length;
+		return new PrimitiveIterator.OfInt() {
+			private int remaining = Math.max(0, toRank - fromRank);
+			private int position = start;
+			private int slot = fromPending;
+
+			@Override
+			public boolean hasNext() {
+				return remaining > 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if (remaining <= 0) {
+					throw new NoSuchElementException();
+				}
+				remaining--;
+				position = Math.min(dead.nextClearBit(position), length);
+				if (slot < pendingSize && (position == length || pending[slot] < ids[position])) {
+					return pending[slot++];
+				}
+				return ids[position++];
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of IDs less than the given one.
+	 */
+	int lowerBound(int id) {
+		return liveBefore(lowerBound(ids, 0, length, id)) + lowerBound(pending, 0, pendingSize, id);
+	}
+
+	/**
+	 * Returns the number of IDs less than or equal to the given one.
+	 */
+	int upperBound(int id) {
+		return id == Integer.MAX_VALUE ? size() : lowerBound(id + 1);
+	}
+
+	/**
+	 * Returns the index of the first element of the sorted range
+	 * {@code [from, to)} that is not less than the key, or {@code to} if there is
+	 * none.
+	 */
+	static int lowerBound(int[] sorted, int from, int to, int key) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private void append(int id) {
+		if (length == ids.length) {
+			ids = Arrays.copyOf(ids, length * 2);
+			buildLiveCounts();
+		}
+		ids[length++] = id;
+		updateLiveCount(length - 1, 1);
+	}
+
+	/**
+	 * Returns how many of the {@code count} smallest IDs are in the side array,
+	 * by binary search over the split between it and the live main array.
+	 */
+	private int pendingAmongSmallest(int count) {
+		int low = Math.max(0, count - (length - deadCount));
+		int high = Math.min(count, pendingSize);
+		while (low < high) {
+			int taken = (low + high) >>> 1;
+			if (pending[taken] < ids[liveSlot(count - 1 - taken)]) {
+				low = taken + 1;
+			} else {
+				high = taken;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Replaces the main array by the merge of its live IDs, the side array and
+	 * the given sorted batch, dropping the dead slots.
+	 */
+	private void merge(int[] batch, int count) {
+		int[] merged = new int[length - deadCount + pendingSize];
+		int target = 0;
+		int slot = 0;
+		for (int position = dead.nextClearBit(0); position < length; position = dead.nextClearBit(position + 1)) {
+			while (slot < pendingSize && pending[slot] < ids[position]) {
+				merged[target++] = pending[slot++];
+			}
+			merged[target++] = ids[position];
+		}
+		while (slot < pendingSize) {
+			merged[target++] = pending[slot++];
+		}
+
+		int size = merged.length + count;
+		int[] rebuilt = new int[Math.max(16, size + (size >> 1))];
+		int i = 0;
+		int j = 0;
+		target = 0;
+		while (i < merged.length && j < count) {
+			rebuilt[target++] = merged[i] < batch[j] ? merged[i++] : batch[j++];
+		}
+		while (i < merged.length) {
+			rebuilt[target++] = merged[i++];
+		}
+		while (j < count) {
+			rebuilt[target++] = batch[j++];
+		}
+
+		ids = rebuilt;
+		length = size;
+		dead.clear();
+		deadCount = 0;
+		pendingSize = 0;
+		if (pending.length > MIN_PENDING) {
+			pending = new int[MIN_PENDING];
+		}
+		buildLiveCounts();
+	}
+
+	/**
+	 * Rebuilds the Fenwick tree for the current capacity in linear time.
+	 */
+	private void buildLiveCounts() {
+		liveCounts = new int[ids.length + 1];
+		for (int i = 1; i < liveCounts.length; i++) {
+			if (i <= length && !dead.get(i - 1)) {
+				liveCounts[i]++;
+			}
+			int parent = i + (i & -i);
+			if (parent < liveCounts.length) {
+				liveCounts[parent] += liveCounts[i];
+			}
+		}
+	}
+
+	private void updateLiveCount(int position, int delta) {
+		for (int i = position + 1; i < liveCounts.length; i += i & -i) {
+			liveCounts[i] += delta;
+		}
+	}
+
+	/**
+	 * Returns the number of live slots before the given position.
+	 */
+	private int liveBefore(int position) {
+		int count = 0;
+		for (int i = position; i > 0; i -= i & -i) {
+			count += liveCounts[i];
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the position of the live slot with the given 0-based rank.
+	 */
+	private int liveSlot(int rank) {
+		int position = 0;
+		int remaining = rank;
+		for (int step = Integer.highestOneBit(liveCounts.length - 1); step > 0; step >>= 1) {
+			int next = position + step;
+			if (next < liveCounts.length && liveCounts[next] <= remaining) {
+				position = next;
+				remaining -= liveCounts[next];
+			}
+		}
+		return position;
+	}
+}
@@ -0,0 +1,782 @@
+package com.homework.patternquerytool;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * PatternCallStore that keeps the heap taken by its records within a
+ * MemoryBudget, so data sets larger than the heap stay queryable.
+ *
+ * <p>
+ * Records are appended to RecordSegments of a fixed number of records, each
+ * carrying its own posting lists by id, name and path. When the estimated size
+ * of the resident segments exceeds the budget, the least recently used
+ * segments are spilled to segment files and read back in when a lookup
+ * needs them, evicting others in turn. An id directory of primitive arrays
+ * maps each id to its segment, so lookups by id page in at most one segment
+ * and id range queries group their ids by segment to page each in only once;
+ * lookups by name or path only page in the segments whose Bloom filter may
+ * contain the key. Queries over all records, such as skipped or called calls,
+ * page in the segments one after the other. A single segment is kept resident
+ * even when it alone exceeds the budget. Removals and updates touch a single
+ * slot of their segment, and a removal from a spilled segment does not page it
+ * in at all.
+ * </p>
+ *
+ * <p>
+ * Like PatternCallRepository, changes take the repository's write lock and
+ * lookups its read lock, so the query server and the batch runner query it in
+ * parallel. A lookup pages a segment in while holding only that segment's
+ * monitor, so lookups of other segments are not held up by its disk read; the
+ * least recently used order and the resident size are kept under a separate
+ * monitor that is never held during a page-in. File loads parse without the
+ * lock and take it once per segment's worth of records, as a parsed file may
+ * not fit the budget; directory loads take it once per file.
+ * </p>
+ *
+ * <p>
+ * {@link #getPatternCalls()} and {@link #getAllPatternCalls()} return
+ * snapshots like PatternCallRepository, copying every record onto the heap
+ * regardless of the budget; {@link #writeToFile(String)} instead writes one
+ * segment after the other. {@link #close()} deletes the segment files.
+ * </p>
+ *
+ * @author soumya-s-goud
+ */
+public class SpillingPatternCallRepository implements PatternCallStore, Closeable {
+
+	private static final int RANK_WINDOW = 1 << 16;
+
+	private final MemoryBudget budget;
+	private final Path spillDirectory;
+	private final boolean temporaryDirectory;
+	private final List<RecordSegment> segments = new ArrayList<>();
+	private final Map<Integer, RecordSegment> residentSegments = new LinkedHashMap<>(16, 0.75f, true); // LRU order
+	private final Object residency = new Object(); // Guards residentSegments and residentBytes
+	private final IdDirectory idDirectory = new IdDirectory(); // Maps id to its segment number
+	private final SortedIdIndex sortedIdIndex = new SortedIdIndex();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final LongAdder nameLookups = new LongAdder();
+	private final LongAdder pathLookups = new LongAdder();
+	private final LongAdder pageIns = new LongAdder();
+	private long residentBytes;
+	private int bulkLoads; // Running bulk adds, guarded by the write lock
+
+	/**
+	 * Initializes an empty repository keeping its records within the given
+	 * budget.
+	 *
+	 * @param budget the memory budget and spill settings
+	 * @throws IOException if the spill directory cannot be created
+	 */
+	public SpillingPatternCallRepository(MemoryBudget budget) throws IOException {
+		if (budget == null) {
+			throw new IllegalArgumentException("Memory budget cannot be null");
+		}
+		this.budget = budget;
+		this.temporaryDirectory = budget.getSpillDirectory() == null;
+		this.spillDirectory = temporaryDirectory ? Files.createTempDirectory("patternCallSegments")
+				: Files.createDirectories(budget.getSpillDirectory());
+	}
+
+	@Override
+	public void addPatternCall(PatternCall patternCall) {
+		if (patternCall == null) {
+			throw new IllegalArgumentException("PatternCall cannot be null");
+		}
+
+		lock.writeLock().lock();
+		try {
+			if (idDirectory.get(patternCall.getId()) >= 0) {
+				return; // Do not add if the ID already exists
+			}
+
+			if (segments.isEmpty() || segments.get(segments.size() - 1).isFull()) {
+				segments.add(new RecordSegment(spillDirectory.resolve("segment-" + segments.size() + ".dat"),
+						budget.getSegmentSize()));
+			}
+			int number = segments.size() - 1;
+			RecordSegment segment = resident(number);
+			long before = segment.getEstimatedBytes();
+			segment.add(patternCall);
+			resized(segment, before);
+			idDirectory.put(patternCall.getId(), number);
+			if (bulkLoads > 0) {
+				sortedIdIndex.addedInBulk(patternCall.getId());
+			} else {
+				sortedIdIndex.added(patternCall.getId());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public int addPatternCalls(Collection<PatternCall> patternCalls) {
+		if (patternCalls.contains(null)) {
+			throw new IllegalArgumentException("PatternCall cannot be null");
+		}
+
+		lock.writeLock().lock();
+		try {
+			int before = idDirectory.size();
+			bulkLoads++;
+			try {
+				for (PatternCall patternCall : patternCalls) {
+					addPatternCall(patternCall);
+				}
+			} finally {
+				if (--bulkLoads == 0) {
+					sortedIdIndex.finishBulk();
+				}
+			}
+			return idDirectory.size() - before;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean removePatternCall(int id) {
+		lock.writeLock().lock();
+		try {
+			int number = idDirectory.remove(id);
+			if (number < 0) {
+				return false;
+			}
+
+			RecordSegment segment = segments.get(number); // A spilled segment is not paged in
+			long before = segment.getEstimatedBytes();
+			segment.remove(id);
+			if (segment.isResident()) {
+				resized(segment, before);
+			}
+			sortedIdIndex.removed(id);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean updatePatternCall(PatternCall patternCall) {
+		if (patternCall == null) {
+			throw new IllegalArgumentException("PatternCall cannot be null");
+		}
+
+		lock.writeLock().lock();
+		try {
+			int number = idDirectory.get(patternCall.getId());
+			if (number < 0) {
+				return false;
+			}
+
+			RecordSegment segment = resident(number);
+			long before = segment.getEstimatedBytes();
+			segment.replace(patternCall);
+			resized(segment, before);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void applyChanges(PatternCallChangeSet changeSet) {
+		lock.writeLock().lock();
+		try {
+			for (int id : changeSet.getRemovedIds()) {
+				removePatternCall(id);
+			}
+			for (PatternCall patternCall : changeSet.getChanged()) {
+				updatePatternCall(patternCall);
+			}
+			addPatternCalls(changeSet.getAdded());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public PatternCall getPatternCallById(int id) {
+		lock.readLock().lock();
+		try {
+			return find(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<PatternCall> getPatternCallsByName(String name) {
+		nameLookups.increment();
+		List<PatternCall> patternCalls = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (int number = 0; number < segments.size(); number++) {
+				if (segments.get(number).mightContainName(name)) {
+					patternCalls.addAll(read(number, segment -> segment.getByName(name)));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return patternCalls;
+	}
+
+	@Override
+	public List<PatternCall> getPatternCallsByPath(String patternFile) {
+		pathLookups.increment();
+		List<PatternCall> patternCalls = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (int number = 0; number < segments.size(); number++) {
+				if (segments.get(number).mightContainPath(patternFile)) {
+					patternCalls.addAll(read(number, segment -> segment.getByPath(patternFile)));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return patternCalls;
+	}
+
+	@Override
+	public QueryResult getPatternCallsByName(String name, QueryOptions options) {
+		nameLookups.increment();
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			for (int number = 0; number < segments.size(); number++) {
+				if (segments.get(number).mightContainName(name)
+						&& !collect(read(number, segment -> segment.getByName(name)), p -> true, collector)) {
+					break;
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return collector.result();
+	}
+
+	@Override
+	public QueryResult getPatternCallsByPath(String patternFile, QueryOptions options) {
+		pathLookups.increment();
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			for (int number = 0; number < segments.size(); number++) {
+				if (segments.get(number).mightContainPath(patternFile) && !collect(
+						read(number, segment -> segment.getByPath(patternFile)), p -> true, collector)) {
+					break;
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return collector.result();
+	}
+
+	@Override
+	public long getNameLookupCount() {
+		return nameLookups.sum();
+	}
+
+	@Override
+	public long getPathLookupCount() {
+		return pathLookups.sum();
+	}
+
+	@Override
+	public List<PatternCall> getPatternCallsInIdRange(int fromId, int toId) {
+		lock.readLock().lock();
+		try {
+			return collectRanks(sortedIdIndex.lowerBound(fromId), sortedIdIndex.upperBound(toId));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<PatternCall> getPatternCallsSortedById() {
+		lock.readLock().lock();
+		try {
+			return collectRanks(0, sortedIdIndex.size());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public QueryResult getPatternCallsInIdRange(int fromId, int toId, QueryOptions options) {
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			collectRanks(sortedIdIndex.lowerBound(fromId), sortedIdIndex.upperBound(toId), collector);
+		} finally {
+			lock.readLock().unlock();
+		}
+		return collector.result();
+	}
+
+	@Override
+	public QueryResult getPatternCallsSortedById(QueryOptions options) {
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			collectRanks(0, sortedIdIndex.size(), collector);
+		} finally {
+			lock.readLock().unlock();
+		}
+		return collector.result();
+	}
+
+	/**
+	 * Retrieves the PatternCalls matching the filter in the order they were
+	 * added, within the given limits, paging in one segment after the other.
+	 *
+	 * @param filter  the condition the PatternCalls must satisfy
+	 * @param options the limits of the query
+	 * @return the PatternCalls collected and whether the query completed
+	 * @throws QueryAbortedException if a limit is hit and the options fail fast
+	 */
+	@Override
+	public QueryResult findPatternCalls(Predicate<PatternCall> filter, QueryOptions options) {
+		QueryCollector collector = new QueryCollector(options);
+		lock.readLock().lock();
+		try {
+			for (int number = 0; number < segments.size(); number++) {
+				if (!collect(read(number, RecordSegment::records), filter, collector)) {
+					break;
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return collector.result();
+	}
+
+	@Override
+	public PatternCall getPatternCallWithMinId() {
+		lock.readLock().lock();
+		try {
+			return sortedIdIndex.size() == 0 ? null : find(sortedIdIndex.idAt(0));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public PatternCall getPatternCallWithMaxId() {
+		lock.readLock().lock();
+		try {
+			return sortedIdIndex.size() == 0 ? null : find(sortedIdIndex.idAt(sortedIdIndex.size() - 1));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int getIdRank(int id) {
+		lock.readLock().lock();
+		try {
+			return sortedIdIndex.lowerBound(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public PatternCall getPatternCallByIdRank(int rank) {
+		lock.readLock().lock();
+		try {
+			if (rank < 0 || rank >= sortedIdIndex.size()) {
+				throw new IndexOutOfBoundsException(
+						"Rank " + rank + " out of range for " + sortedIdIndex.size() + " ids");
+			}
+			return find(sortedIdIndex.idAt(rank));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Retrieves all PatternCall objects stored in the repository, in the order
+	 * they were added. The list is a snapshot that later changes do not affect;
+	 * it holds every record on the heap, outside the memory budget.
+	 *
+	 * @return a list of all PatternCalls in the repository
+	 */
+	@Override
+	public List<PatternCall> getPatternCalls() {
+		lock.readLock().lock();
+		try {
+			List<PatternCall> snapshot = new ArrayList<>(idDirectory.size());
+			for (int number = 0; number < segments.size(); number++) {
+				addRecords(number, snapshot);
+			}
+			return snapshot;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Retrieves all PatternCall objects stored in the repository. The collection
+	 * is a snapshot that later changes do not affect; it holds every record on
+	 * the heap, outside the memory budget.
+	 *
+	 * @return a collection of all PatternCall objects
+	 */
+	@Override
+	public Collection<PatternCall> getAllPatternCalls() {
+		return getPatternCalls();
+	}
+
+	/**
+	 * Reads pattern calls from a plain text file, adding them in chunks of one
+	 * segment's worth of records so the file never has to fit the budget. The
+	 * write lock is taken once per chunk, not for the whole file, so readers may
+	 * see the chunks added so far while the load runs.
+	 *
+	 * @param filePath the path to the text file to read from
+	 * @param policy   how invalid lines are handled
+	 * @return the report of the load, including the rejected lines
+	 * @throws IOException              if an I/O error occurs during file reading
+	 * @throws IllegalArgumentException on the first invalid line under the strict
+	 *                                  policy
+	 */
+	@Override
+	public PatternCallLoadReport readFromFile(String filePath, ParsePolicy policy) throws IOException {
+		return PatternCallFileParser.load(Path.of(filePath), policy, this, budget.getSegmentSize());
+	}
+
+	@Override
+	public PatternCallLoadReport readFromDirectory(String directoryPath, ParsePolicy policy) throws IOException {
+		return new PatternCallDirectoryLoader().load(Path.of(directoryPath), this, policy);
+	}
+
+	/**
+	 * Writes the stored pattern calls to a specified plain text file, in the
+	 * order they were added. Only one segment's records are copied onto the heap
+	 * at a time; the read lock is held until the file is written, so it holds a
+	 * consistent state of the repository.
+	 *
+	 * @param filePath the path to the text file to write to
+	 * @throws IOException if an I/O error occurs during file writing
+	 */
+	@Override
+	public void writeToFile(String filePath) throws IOException {
+		lock.readLock().lock();
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+			List<PatternCall> records = new ArrayList<>(budget.getSegmentSize());
+			for (int number = 0; number < segments.size(); number++) {
+				records.clear();
+				addRecords(number, records);
+				for (PatternCall patternCall : records) {
+					writer.write(patternCall.toRecordLine());
+					writer.newLine();
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int getPatternCallCount() {
+		lock.readLock().lock();
+		try {
+			return idDirectory.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of segments the records are stored in.
+	 *
+	 * @return the number of segments
+	 */
+	public int getSegmentCount() {
+		lock.readLock().lock();
+		try {
+			return segments.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of segments currently held in memory.
+	 *
+	 * @return the number of resident segments
+	 */
+	public int getResidentSegmentCount() {
+		synchronized (residency) {
+			return residentSegments.size();
+		}
+	}
+
+	/**
+	 * Gets the estimated heap taken by the records of the resident segments.
+	 *
+	 * @return the estimated resident size in bytes
+	 */
+	public long getResidentBytes() {
+		synchronized (residency) {
+			return residentBytes;
+		}
+	}
+
+	/**
+	 * Gets the number of times a spilled segment was paged back in.
+	 *
+	 * @return the number of page-ins since the repository was created
+	 */
+	public long getPageInCount() {
+		return pageIns.sum();
+	}
+
+	/**
+	 * Deletes the segment files, and the spill directory if it was created as a
+	 * temporary directory. The repository cannot be used afterwards.
+	 *
+	 * @throws IOException if a file cannot be deleted
+	 */
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			for (RecordSegment segment : segments) {
+				segment.delete();
+			}
+			segments.clear();
+			synchronized (residency) {
+				residentSegments.clear();
+				residentBytes = 0;
+			}
+			if (temporaryDirectory) {
+				Files.deleteIfExists(spillDirectory);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Looks up a record by id. Only called with the read or write lock held.
+	 */
+	private PatternCall find(int id) {
+		int number = idDirectory.get(id);
+		return number < 0 ? null : read(number, segment -> segment.get(id));
+	}
+
+	/**
+	 * Applies an access to the segment with the given number while holding its
+	 * monitor, paging the segment in first if it was spilled, and then marks it
+	 * as the most recently used. Only called with the read or write lock held.
+	 *
+	 * <p>
+	 * The access must return data that stays valid once the segment is spilled
+	 * again; under the read lock the record list and the posting lists it hands
+	 * out are not modified.
+	 * </p>
+	 */
+	private <T> T read(int number, Function<RecordSegment, T> access) {
+		RecordSegment segment = segments.get(number);
+		try {
+			synchronized (segment) {
+				if (!segment.isResident()) {
+					try {
+						segment.pageIn();
+					} catch (IOException e) {
+						throw new UncheckedIOException("Cannot page in pattern call segment", e);
+					}
+					pageIns.increment();
+				}
+				return access.apply(segment);
+			}
+		} finally {
+			touched(number, segment);
+		}
+	}
+
+	/**
+	 * Returns the segment with the given number, paging it in first if it was
+	 * spilled. Only called with the write lock held, so the segment stays
+	 * resident until the caller releases it.
+	 */
+	private RecordSegment resident(int number) {
+		return read(number, segment -> segment);
+	}
+
+	/**
+	 * Moves a segment that was just accessed to the end of the LRU order, adding
+	 * it to the resident size if it was paged in, and spills others if the
+	 * budget is exceeded.
+	 */
+	private void touched(int number, RecordSegment segment) {
+		synchronized (residency) {
+			synchronized (segment) {
+				if (!segment.isResident()) {
+					return; // Spilled again by a concurrent lookup
+				}
+			}
+			if (residentSegments.put(number, segment) == null) {
+				residentBytes += segment.getEstimatedBytes();
+			}
+			evict(segment);
+		}
+	}
+
+	/**
+	 * Accounts for a change of a resident segment's size made under the write
+	 * lock, spilling others if the budget is exceeded.
+	 */
+	private void resized(RecordSegment segment, long before) {
+		synchronized (residency) {
+			residentBytes += segment.getEstimatedBytes() - before;
+			evict(segment);
+		}
+	}
+
+	/**
+	 * Spills the least recently used segments other than the given one until the
+	 * resident segments fit the budget again. Only called holding the residency
+	 * monitor; each segment is spilled under its own monitor, so a lookup still
+	 * reading it finishes first.
+	 */
+	private void evict(RecordSegment keep) {
+		Iterator<RecordSegment> lru = residentSegments.values().iterator();
+		while (residentBytes > budget.getMaxBytes() && lru.hasNext()) {
+			RecordSegment segment = lru.next();
+			if (segment == keep) {
+				continue;
+			}
+			synchronized (segment) {
+				try {
+					segment.spill();
+				} catch (IOException e) {
+					throw new UncheckedIOException("Cannot spill pattern call segment", e);
+				}
+			}
+			residentBytes -= segment.getEstimatedBytes();
+			lru.remove();
+		}
+	}
+
+	private List<PatternCall> collectRanks(int fromRank, int toRank) {
+		return toRank <= fromRank ? new ArrayList<>() : new ArrayList<>(Arrays.asList(findRanks(fromRank, toRank)));
+	}
+
+	/**
+	 * Passes the records with ranks {@code [fromRank, toRank)} to the collector
+	 * in id order, looking them up in windows of at most
+	 * {@value #RANK_WINDOW} ranks, or fewer if fewer results are still wanted.
+	 */
+	private void collectRanks(int fromRank, int toRank, QueryCollector collector) {
+		for (int rank = fromRank; rank < toRank;) {
+			int window = (int) Math.min(Math.min(toRank - rank, RANK_WINDOW), collector.remaining() + 1L);
+			for (PatternCall patternCall : findRanks(rank, rank + window)) {
+				if (!collector.scanned() || !collector.add(patternCall)) {
+					return;
+				}
+			}
+			rank += window;
+		}
+	}
+
+	/**
+	 * Looks up the records with ranks {@code [fromRank, toRank)} in id order.
+	 * The ids are grouped by segment first, so each segment is paged in once
+	 * however the ids are spread across the segments.
+	 */
+	private PatternCall[] findRanks(int fromRank, int toRank) {
+		int count = toRank - fromRank;
+		int[] ids = new int[count];
+		int[] numbers = new int[count];
+		int[] starts = new int[segments.size() + 1];
+		PrimitiveIterator.OfInt sorted = sortedIdIndex.ids(fromRank, toRank);
+		for (int i = 0; i < count; i++) {
+			ids[i] = sorted.nextInt();
+			numbers[i] = idDirectory.get(ids[i]);
+			starts[numbers[i] + 1]++;
+		}
+		for (int number = 0; number < segments.size(); number++) {
+			starts[number + 1] += starts[number];
+		}
+
+		// Counting sort of the positions by segment, keeping id order within each
+		int[] grouped = new int[count];
+		int[] next = Arrays.copyOf(starts, segments.size());
+		for (int i = 0; i < count; i++) {
+			grouped[next[numbers[i]]++] = i;
+		}
+
+		PatternCall[] found = new PatternCall[count];
+		for (int number = 0; number < segments.size(); number++) {
+			int from = starts[number];
+			int to = starts[number + 1];
+			if (from < to) {
+				read(number, segment -> {
+					for (int k = from; k < to; k++) {
+						found[grouped[k]] = segment.get(ids[grouped[k]]);
+					}
+					return null;
+				});
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Passes the records of one segment that match the filter to the collector,
+	 * returning false once it stopped the query.
+	 */
+	private static boolean collect(List<PatternCall> records, Predicate<PatternCall> filter,
+			QueryCollector collector) {
+		for (PatternCall patternCall : records) {
+			if (!collector.scanned()) {
+				return false;
+			}
+			if (patternCall != null && filter.test(patternCall) && !collector.add(patternCall)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the live records of one segment to the list. Only called with the
+	 * read lock held.
+	 */
+	private void addRecords(int number, List<PatternCall> target) {
+		read(number, segment -> {
+			for (PatternCall patternCall : segment.records()) {
+				if (patternCall != null) { // Skip tombstones
+					target.add(patternCall);
+				}
+			}
+			return null;
+		});
+	}
+}
@@ -0,0 +1,131 @@
+package com.homework.patternquerytool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PatternCallBatchRunner.
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallBatchRunnerTest {
+
+	private PatternCallQueryService queryService;
+
+	@BeforeEach
+	public void setUp() {
+		PatternCallRepository repository = new PatternCallRepository();
+		repository.addPatternCall(new PatternCall(42, "myPattern", "src/patterns/Functional.pat", false));
+		repository.addPatternCall(new PatternCall(43, "anotherPattern", "src/patterns/Another.pat", true));
+		repository.addPatternCall(new PatternCall(44, "myPattern", "src/patterns/MyPattern.pat", true));
+		queryService = new PatternCallQueryService(repository);
+	}
+
+	/**
+	 * Test for CSV output, in input order across several small batches.
+	 */
+	@Test
+	public void testRun_Csv() throws IOException {
+		PatternCallBatchRunner runner = new PatternCallBatchRunner(queryService, PatternCallBatchRunner.Format.CSV,
+				4, 2);
+		StringWriter out = new StringWriter();
+		int count = runner.run(new BufferedReader(new StringReader("id 42\n\n# comment\nid 999\nname myPattern\nbogus\n")),
+				out);
+
+		assertEquals(4, count);
+		assertEquals("query,id,name,patternFile,called,error\n" //
+				+ "id 42,42,myPattern,src/patterns/Functional.pat,false,\n" //
+				+ "name myPattern,42,myPattern,src/patterns/Functional.pat,false,\n" //
+				+ "name myPattern,44,myPattern,src/patterns/MyPattern.pat,true,\n" //
+				+ "bogus,,,,,Unknown query: bogus\n", out.toString());
+	}
+
+	/**
+	 * Test that the first-result callback runs once, after the rows of the first
+	 * query were written and before those of the second.
+	 */
+	@Test
+	public void testRun_FirstResultCallback() throws IOException {
+		PatternCallBatchRunner runner = new PatternCallBatchRunner(queryService, PatternCallBatchRunner.Format.CSV,
+				2, 2);
+		StringWriter out = new StringWriter();
+		List<String> seen = new ArrayList<>();
+		runner.run(new BufferedReader(new StringReader("id 42\nid 43\nid 44\n")), out, () -> seen.add(out.toString()));
+
+		assertEquals(List.of("query,id,name,patternFile,called,error\n"
+				+ "id 42,42,myPattern,src/patterns/Functional.pat,false,\n"), seen);
+	}
+
+	/**
+	 * Test for JSON lines output.
+	 */
+	@Test
+	public void testRun_Json() throws IOException {
+		PatternCallBatchRunner runner = new PatternCallBatchRunner(queryService, PatternCallBatchRunner.Format.JSON);
+		StringWriter out = new StringWriter();
+		runner.run(new BufferedReader(new StringReader("called\nid x\n")), out);
+
+		assertEquals("{\"query\":\"called\",\"id\":43,\"name\":\"anotherPattern\",\"patternFile\":\"src/patterns/Another.pat\",\"called\":true}\n"
+				+ "{\"query\":\"called\",\"id\":44,\"name\":\"myPattern\",\"patternFile\":\"src/patterns/MyPattern.pat\",\"called\":true}\n"
+				+ "{\"query\":\"id x\",\"error\":\"Invalid id in query: id x\"}\n", out.toString());
+	}
+
+	/**
+	 * Test for default limits and per-query options, with the status rows of
+	 * queries stopped by a limit.
+	 */
+	@Test
+	public void testRun_Limits() throws IOException {
+		QueryOptions defaults = QueryOptions.unbounded().withMaxResults(1);
+		PatternCallBatchRunner csvRunner = new PatternCallBatchRunner(queryService, PatternCallBatchRunner.Format.CSV,
+				2, 16, defaults);
+		StringWriter csv = new StringWriter();
+		csvRunner.run(new BufferedReader(new StringReader("called\nname myPattern limit=2\n")), csv);
+
+		assertEquals("query,id,name,patternFile,called,error\n" //
+				+ "called,43,anotherPattern,src/patterns/Another.pat,true,\n" //
+				+ "called,,,,,TRUNCATED\n" //
+				+ "name myPattern limit=2,42,myPattern,src/patterns/Functional.pat,false,\n" //
+				+ "name myPattern limit=2,44,myPattern,src/patterns/MyPattern.pat,true,\n", csv.toString());
+
+		PatternCallBatchRunner jsonRunner = new PatternCallBatchRunner(queryService,
+				PatternCallBatchRunner.Format.JSON, 2, 16, defaults);
+		StringWriter json = new StringWriter();
+		jsonRunner.run(new BufferedReader(new StringReader("skipped timeout=0\n")), json);
+		assertEquals("{\"query\":\"skipped timeout=0\",\"status\":\"TIMED_OUT\"}\n", json.toString());
+	}
+
+	/**
+	 * Test for quoting of CSV fields and escaping of JSON strings.
+	 */
+	@Test
+	public void testEscaping() {
+		assertEquals("plain", PatternCallBatchRunner.csv("plain"));
+		assertEquals("\"a,\"\"b\"\"\"", PatternCallBatchRunner.csv("a,\"b\""));
+		assertEquals("\"a\\\"b\\\\c\\n\\u0001\"", PatternCallBatchRunner.json("a\"b\\c\n\u0001"));
+		assertEquals("null", PatternCallBatchRunner.json(null));
+	}
+
+	/**
+	 * Negative test case for invalid runner settings.
+	 */
+	@Test
+	public void testConstructor_InvalidArguments() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new PatternCallBatchRunner(queryService, PatternCallBatchRunner.Format.CSV, 0, 1));
+		assertThrows(IllegalArgumentException.class,
+				() -> new PatternCallBatchRunner(null, PatternCallBatchRunner.Format.CSV));
+		assertThrows(IllegalArgumentException.class,
+				() -> new PatternCallBatchRunner(queryService, PatternCallBatchRunner.Format.CSV, 1, 1, null));
+	}
+}
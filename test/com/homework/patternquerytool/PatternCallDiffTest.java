@@ -0,0 +1,154 @@
+package com.homework.patternquerytool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PatternCallDiff.
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallDiffTest {
+
+	/**
+	 * Test for a diff containing each kind of change.
+	 */
+	@Test
+	public void testCompute_AddedRemovedChanged() {
+		PatternCallRepository oldRepository = new PatternCallRepository();
+		oldRepository.addPatternCall(new PatternCall(1, "kept", "src/patterns/Kept.pat", true));
+		oldRepository.addPatternCall(new PatternCall(2, "flipped", "src/patterns/Flipped.pat", true));
+		oldRepository.addPatternCall(new PatternCall(3, "removed", "src/patterns/Removed.pat", false));
+		oldRepository.addPatternCall(new PatternCall(5, "moved", "src/patterns/Old.pat", false));
+
+		PatternCallRepository newRepository = new PatternCallRepository();
+		newRepository.addPatternCall(new PatternCall(5, "moved", "src/patterns/New.pat", false));
+		newRepository.addPatternCall(new PatternCall(4, "added", "src/patterns/Added.pat", true));
+		newRepository.addPatternCall(new PatternCall(2, "flipped", "src/patterns/Flipped.pat", false));
+		newRepository.addPatternCall(new PatternCall(1, "kept", "src/patterns/Kept.pat", true));
+
+		PatternCallChangeSet changeSet = new PatternCallDiff().compute(oldRepository, newRepository);
+
+		assertEquals(List.of(4), ids(changeSet.getAdded()));
+		assertArrayEquals(new int[] { 3 }, changeSet.getRemovedIds());
+		assertEquals(List.of(2, 5), ids(changeSet.getChanged()));
+		assertFalse(changeSet.getChanged().get(0).isCalled(), "Changed entry should be the new version.");
+		assertEquals(4, changeSet.size());
+	}
+
+	/**
+	 * Edge test case for identical and empty generations.
+	 */
+	@Test
+	public void testCompute_NoChanges() {
+		PatternCallRepository repository = new PatternCallRepository();
+		repository.addPatternCall(new PatternCall(1, "kept", "src/patterns/Kept.pat", true));
+
+		assertTrue(new PatternCallDiff().compute(repository, repository).isEmpty());
+		assertTrue(new PatternCallDiff().compute(new PatternCallRepository(), new PatternCallRepository()).isEmpty());
+		assertEquals(1, new PatternCallDiff().compute(new PatternCallRepository(), repository).getAdded().size());
+	}
+
+	/**
+	 * Test for a diff split into many parallel partitions, compared against a
+	 * lookup based diff.
+	 */
+	@Test
+	public void testCompute_ManyPartitions() {
+		Random random = new Random(42);
+		PatternCallRepository oldRepository = new PatternCallRepository();
+		PatternCallRepository newRepository = new PatternCallRepository();
+		for (int i = 0; i < 5000; i++) {
+			int id = random.nextInt(20000) - 10000;
+			oldRepository.addPatternCall(new PatternCall(id, "p" + id, "src/patterns/P.pat", random.nextBoolean()));
+			id = random.nextInt(20000) - 10000;
+			newRepository.addPatternCall(new PatternCall(id, "p" + id, "src/patterns/P.pat", random.nextBoolean()));
+		}
+
+		PatternCallChangeSet changeSet = new PatternCallDiff(100).compute(oldRepository, newRepository);
+
+		List<Integer> expectedAdded = new ArrayList<>();
+		List<Integer> expectedChanged = new ArrayList<>();
+		List<Integer> expectedRemoved = new ArrayList<>();
+		for (int id = -10000; id < 10000; id++) {
+			PatternCall before = oldRepository.getPatternCallById(id);
+			PatternCall after = newRepository.getPatternCallById(id);
+			if (before == null && after != null) {
+				expectedAdded.add(id);
+			} else if (before != null && after == null) {
+				expectedRemoved.add(id);
+			} else if (before != null && before.isCalled() != after.isCalled()) {
+				expectedChanged.add(id);
+			}
+		}
+		assertEquals(expectedAdded, ids(changeSet.getAdded()));
+		assertEquals(expectedChanged, ids(changeSet.getChanged()));
+		assertArrayEquals(expectedRemoved.stream().mapToInt(Integer::intValue).toArray(), changeSet.getRemovedIds());
+	}
+
+	/**
+	 * Test for applying a change set, which turns the old generation into the new
+	 * one.
+	 */
+	@Test
+	public void testApplyTo() {
+		PatternCallRepository oldRepository = new PatternCallRepository();
+		PatternCallRepository newRepository = new PatternCallRepository();
+		for (int i = 0; i < 100; i++) {
+			oldRepository.addPatternCall(new PatternCall(i, "p" + i, "src/patterns/P.pat", true));
+			newRepository.addPatternCall(new PatternCall(i + 50, "p" + i, "src/patterns/P.pat", i % 3 == 0));
+		}
+
+		new PatternCallDiff(16).compute(oldRepository, newRepository).applyTo(oldRepository);
+
+		assertTrue(new PatternCallDiff().compute(oldRepository, newRepository).isEmpty());
+		assertEquals(100, oldRepository.getPatternCalls().size());
+	}
+
+	/**
+	 * Test that readers never see a half-applied change set: the count stays the
+	 * same and the lowest id is either the old or the new one.
+	 */
+	@Test
+	public void testApplyTo_Atomic() throws Exception {
+		PatternCallRepository oldRepository = new PatternCallRepository();
+		PatternCallRepository newRepository = new PatternCallRepository();
+		for (int i = 0; i < 10_000; i++) {
+			oldRepository.addPatternCall(new PatternCall(i, "p", "src/patterns/P.pat", true));
+			newRepository.addPatternCall(new PatternCall(i + 5_000, "p", "src/patterns/P.pat", false));
+		}
+		PatternCallChangeSet changeSet = new PatternCallDiff().compute(oldRepository, newRepository);
+
+		Thread writer = new Thread(() -> changeSet.applyTo(oldRepository));
+		writer.start();
+		while (writer.isAlive()) {
+			assertEquals(10_000, oldRepository.getPatternCallCount());
+			int minId = oldRepository.getPatternCallWithMinId().getId();
+			assertTrue(minId == 0 || minId == 5_000, "Saw a partly applied change set: " + minId);
+		}
+		writer.join();
+		assertEquals(5_000, oldRepository.getPatternCallWithMinId().getId());
+	}
+
+	/**
+	 * Negative test case for an invalid partition size.
+	 */
+	@Test
+	public void testInvalidPartitionSize() {
+		assertThrows(IllegalArgumentException.class, () -> new PatternCallDiff(0));
+	}
+
+	private static List<Integer> ids(List<PatternCall> patternCalls) {
+		return patternCalls.stream().map(PatternCall::getId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,120 @@
+package com.homework.patternquerytool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for PatternCallDirectoryLoader.
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallDirectoryLoaderTest {
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Test for loading files from nested directories, where duplicate IDs resolve
+	 * to the first file in path order.
+	 */
+	@Test
+	public void testLoad_NestedDirectoriesFirstWins() throws IOException {
+		Files.createDirectories(directory.resolve("a/nested"));
+		Files.createDirectories(directory.resolve("b"));
+		Files.writeString(directory.resolve("a/nested/first.txt"), "1,first,src/patterns/First.pat,true\n");
+		Files.writeString(directory.resolve("b/second.txt"),
+				"1,duplicate,src/patterns/Duplicate.pat,false\n2,second,src/patterns/Second.pat,false\n");
+
+		PatternCallRepository repository = new PatternCallRepository();
+		PatternCallLoadReport report = repository.readFromDirectory(directory.toString());
+
+		assertEquals(2, report.getFilesLoaded());
+		assertEquals(3, report.getPatternCallsRead());
+		assertEquals(2, report.getPatternCallsAdded());
+		assertTrue(report.getErrors().isEmpty());
+		assertEquals("first", repository.getPatternCallById(1).getName(), "First file in path order should win.");
+		assertEquals("second", repository.getPatternCallById(2).getName());
+	}
+
+	/**
+	 * Test for a file with an invalid boolean value, which is reported without
+	 * aborting the other files.
+	 */
+	@Test
+	public void testLoad_InvalidFileReported() throws IOException {
+		Files.writeString(directory.resolve("1.txt"), "1,one,src/patterns/One.pat,true\n");
+		Files.copy(Path.of("test/resources/invalid_boolean_value.txt"), directory.resolve("2.txt"));
+		Files.writeString(directory.resolve("3.txt"), "3,three,src/patterns/Three.pat,false\n");
+
+		PatternCallRepository repository = new PatternCallRepository();
+		PatternCallLoadReport report = new PatternCallDirectoryLoader(2, 1).load(directory, repository);
+
+		assertEquals(2, report.getFilesLoaded());
+		assertEquals(1, report.getFilesFailed());
+		assertEquals(2, repository.getPatternCalls().size());
+		assertEquals(1, report.getErrors().size());
+		PatternCallLoadReport.LoadError error = report.getErrors().get(0);
+		assertEquals(directory.resolve("2.txt"), error.getFile());
+		assertEquals(1, error.getLineNumber());
+		assertTrue(error.getMessage().contains("notBoolean"));
+	}
+
+	/**
+	 * Test for the skip policy, which keeps the valid lines of a file with
+	 * invalid ones.
+	 */
+	@Test
+	public void testLoad_SkipPolicy() throws IOException {
+		Files.copy(Path.of("test/resources/mixed_invalid_lines.txt"), directory.resolve("1.txt"));
+		Files.copy(Path.of("test/resources/invalid_boolean_value.txt"), directory.resolve("2.txt"));
+
+		PatternCallRepository repository = new PatternCallRepository();
+		PatternCallLoadReport report = repository.readFromDirectory(directory.toString(), ParsePolicy.skip());
+
+		assertEquals(2, report.getFilesLoaded());
+		assertEquals(0, report.getFilesFailed());
+		assertEquals(4, report.getLinesRejected());
+		assertEquals(2, repository.getPatternCalls().size());
+		PatternCallLoadReport.LoadError last = report.getErrors().get(3);
+		assertEquals(directory.resolve("2.txt"), last.getFile());
+		assertEquals(1, last.getLineNumber());
+	}
+
+	/**
+	 * Test for loading many small files through a queue much smaller than the
+	 * number of files, preserving path order.
+	 */
+	@Test
+	public void testLoad_ManyFilesThroughSmallQueue() throws IOException {
+		for (int i = 0; i < 200; i++) {
+			Files.writeString(directory.resolve(String.format("%03d.txt", i)),
+					i + ",pattern" + i + ",src/patterns/Pattern" + i + ".pat," + (i % 2 == 0) + "\n");
+		}
+
+		PatternCallRepository repository = new PatternCallRepository();
+		PatternCallLoadReport report = new PatternCallDirectoryLoader(8, 4).load(directory, repository);
+
+		assertEquals(200, report.getFilesLoaded());
+		assertEquals(200, repository.getPatternCalls().size());
+		for (int i = 0; i < 200; i++) {
+			assertEquals(i, repository.getPatternCalls().get(i).getId());
+		}
+	}
+
+	/**
+	 * Negative test case for a directory that does not exist.
+	 */
+	@Test
+	public void testLoad_MissingDirectory() {
+		PatternCallRepository repository = new PatternCallRepository();
+		assertThrows(IOException.class, () -> repository.readFromDirectory(directory.resolve("missing").toString()));
+	}
+}
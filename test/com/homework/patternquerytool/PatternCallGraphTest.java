@@ -0,0 +1,123 @@
+package com.homework.patternquerytool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PatternCallGraph.
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallGraphTest {
+
+	private PatternCallRepository repository;
+
+	/**
+	 * Builds the graph Main -> Login -> Auth -> Login, Main -x-> Report -> Export
+	 * and an unreachable cycle Orphan -> Cycle -> Orphan, where -x-> is skipped.
+	 */
+	@BeforeEach
+	public void setUp() {
+		repository = new PatternCallRepository();
+		repository.addPatternCall(new PatternCall(1, "Launcher", "src/patterns/Main.pat", true)); // entry call
+		repository.addPatternCall(new PatternCall(2, "Main", "src/patterns/Login.pat", true));
+		repository.addPatternCall(new PatternCall(3, "Login", "src/patterns/Auth.pat", true));
+		repository.addPatternCall(new PatternCall(4, "Auth", "src/patterns/Login.pat", true));
+		repository.addPatternCall(new PatternCall(5, "Main", "src/patterns/Report.pat", false));
+		repository.addPatternCall(new PatternCall(6, "Report", "lib/Export.pat", true));
+		repository.addPatternCall(new PatternCall(7, "Orphan", "src/patterns/Cycle.pat", true));
+		repository.addPatternCall(new PatternCall(8, "Cycle", "src/patterns/Orphan.pat", true));
+	}
+
+	/**
+	 * Test for the nodes and edges derived from the repository.
+	 */
+	@Test
+	public void testGraphShape() {
+		PatternCallGraph graph = new PatternCallGraph(repository);
+
+		assertEquals(7, graph.getFileCount());
+		assertEquals(7, graph.getEdgeCount(), "Every call except the entry call is an edge.");
+		assertEquals("Export", PatternCallGraph.patternName("lib/Export.pat"));
+		assertEquals("NoExtension", PatternCallGraph.patternName("dir\\NoExtension"));
+		assertEquals(0, repository.getNameLookupCount(), "Building the graph must not look up names.");
+		assertEquals(0, repository.getPathLookupCount(), "Building the graph must not look up paths.");
+	}
+
+	/**
+	 * Test for forward reachability with and without skipped calls.
+	 */
+	@Test
+	public void testGetReachableFiles() {
+		PatternCallGraph graph = new PatternCallGraph(repository);
+
+		assertEquals(Set.of("src/patterns/Login.pat", "src/patterns/Auth.pat", "src/patterns/Report.pat",
+				"lib/Export.pat"), graph.getReachableFiles("src/patterns/Main.pat", false));
+		assertEquals(Set.of("src/patterns/Login.pat", "src/patterns/Auth.pat"),
+				graph.getReachableFiles("src/patterns/Main.pat", true));
+		assertTrue(graph.getReachableFiles("src/patterns/Login.pat", true).contains("src/patterns/Login.pat"),
+				"A file on a cycle reaches itself.");
+		assertTrue(graph.getReachableFiles("lib/Export.pat", false).isEmpty());
+		assertTrue(graph.getReachableFiles("src/patterns/Unknown.pat", false).isEmpty());
+		assertSame(graph.getReachableFiles("src/patterns/Main.pat", true),
+				graph.getReachableFiles("src/patterns/Main.pat", true), "Results should be cached.");
+	}
+
+	/**
+	 * Test for impact analysis over the reverse edges.
+	 */
+	@Test
+	public void testGetImpactedFiles() {
+		PatternCallGraph graph = new PatternCallGraph(repository);
+
+		assertEquals(Set.of("src/patterns/Report.pat", "src/patterns/Main.pat"),
+				graph.getImpactedFiles("lib/Export.pat", false));
+		assertEquals(Set.of("src/patterns/Report.pat"), graph.getImpactedFiles("lib/Export.pat", true));
+		assertEquals(Set.of("src/patterns/Main.pat", "src/patterns/Login.pat", "src/patterns/Auth.pat"),
+				graph.getImpactedFiles("src/patterns/Auth.pat", true));
+	}
+
+	/**
+	 * Test for dead calls: skipped ones, those behind a skipped call and those on
+	 * a cycle no entry call reaches.
+	 */
+	@Test
+	public void testGetDeadPatternCalls() {
+		PatternCallGraph graph = new PatternCallGraph(repository);
+
+		List<Integer> dead = graph.getDeadPatternCalls().stream().map(PatternCall::getId)
+				.collect(Collectors.toList());
+		assertEquals(List.of(5, 6, 7, 8), dead);
+	}
+
+	/**
+	 * Test for a graph with a frontier large enough to be expanded in parallel.
+	 */
+	@Test
+	public void testLargeGraph() {
+		PatternCallRepository large = new PatternCallRepository();
+		int id = 0;
+		large.addPatternCall(new PatternCall(id++, "Entry", "root/Root.pat", true));
+		for (int i = 0; i < 10000; i++) {
+			large.addPatternCall(new PatternCall(id++, "Root", "mid/Mid" + i + ".pat", true));
+			large.addPatternCall(new PatternCall(id++, "Mid" + i, "leaf/Leaf" + (i % 5000) + ".pat", i % 2 == 0));
+		}
+
+		PatternCallGraph graph = new PatternCallGraph(large);
+
+		assertEquals(15001, graph.getFileCount());
+		assertEquals(15000, graph.getReachableFiles("root/Root.pat", false).size());
+		assertEquals(12500, graph.getReachableFiles("root/Root.pat", true).size());
+		assertEquals(5000, graph.getDeadPatternCalls().size());
+		assertEquals(Set.of("mid/Mid1.pat", "mid/Mid5001.pat", "root/Root.pat"),
+				graph.getImpactedFiles("leaf/Leaf1.pat", false));
+	}
+}
@@ -0,0 +1,154 @@
+package com.homework.patternquerytool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PatternCallQueryServer, run against a server on localhost.
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallQueryServerTest {
+
+	private PatternCallQueryServer server;
+	private HttpClient client;
+	private String baseUri;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		PatternCallRepository repository = new PatternCallRepository();
+		repository.addPatternCall(new PatternCall(42, "myPattern", "src/patterns/Functional.pat", false));
+		repository.addPatternCall(new PatternCall(43, "anotherPattern", "src/patterns/Another.pat", true));
+		repository.addPatternCall(new PatternCall(44, "myPattern", "src/patterns/MyPattern.pat", true));
+
+		server = new PatternCallQueryServer(new PatternCallQueryService(repository),
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		server.start();
+		client = HttpClient.newHttpClient();
+		baseUri = "http://localhost:" + server.getPort() + "/query";
+	}
+
+	@AfterEach
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Test for a batch of lookups sent in one POST request, answered in order.
+	 */
+	@Test
+	public void testPostBatch() throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri))
+				.POST(HttpRequest.BodyPublishers.ofString("id 42\nid 999\n\nname myPattern\nskipped\n")).build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+		assertEquals(200, response.statusCode());
+		assertEquals("42,myPattern,src/patterns/Functional.pat,false\n\n" // id 42
+				+ "\n" // id 999
+				+ "42,myPattern,src/patterns/Functional.pat,false\n44,myPattern,src/patterns/MyPattern.pat,true\n\n"
+				+ "42,myPattern,src/patterns/Functional.pat,false\n\n", response.body());
+	}
+
+	/**
+	 * Test for a batch of lookups passed as repeated GET parameters.
+	 */
+	@Test
+	public void testGetBatch() throws Exception {
+		HttpRequest request = HttpRequest
+				.newBuilder(URI.create(baseUri + "?q=path%20src%2Fpatterns%2FAnother.pat&q=id%2044")).GET().build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+		assertEquals(200, response.statusCode());
+		assertEquals("43,anotherPattern,src/patterns/Another.pat,true\n\n"
+				+ "44,myPattern,src/patterns/MyPattern.pat,true\n\n", response.body());
+	}
+
+	/**
+	 * Negative test case for a batch containing an invalid query.
+	 */
+	@Test
+	public void testInvalidQueryRejected() throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri))
+				.POST(HttpRequest.BodyPublishers.ofString("id 42\nid notANumber\n")).build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+		assertEquals(400, response.statusCode());
+		assertEquals("Invalid id in query: id notANumber\n", response.body());
+	}
+
+	/**
+	 * Test for limits given as URL parameters for the batch and as options of a
+	 * single query, with the status line of a query stopped by its limit.
+	 */
+	@Test
+	public void testLimits() throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "?limit=1&timeout=60000"))
+				.POST(HttpRequest.BodyPublishers.ofString("called\nname myPattern limit=5\n")).build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+		assertEquals(200, response.statusCode());
+		assertEquals("43,anotherPattern,src/patterns/Another.pat,true\n# TRUNCATED\n\n"
+				+ "42,myPattern,src/patterns/Functional.pat,false\n44,myPattern,src/patterns/MyPattern.pat,true\n\n",
+				response.body());
+
+		HttpRequest invalid = HttpRequest.newBuilder(URI.create(baseUri + "?q=called&limit=-1")).GET().build();
+		assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode());
+	}
+
+	/**
+	 * Test that a query failing after the status was sent ends the body with an
+	 * error line and drops the rest of the batch.
+	 */
+	@Test
+	public void testFailedQueryEndsWithError() throws Exception {
+		PatternCallRepository repository = new PatternCallRepository();
+		repository.addPatternCall(new PatternCall(42, "myPattern", "src/patterns/Functional.pat", false));
+		repository.addPatternCall(new PatternCall(44, "myPattern", "src/patterns/MyPattern.pat", true));
+		PatternCallQueryServer failFastServer = new PatternCallQueryServer(new PatternCallQueryService(repository),
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+				QueryOptions.unbounded().withMaxResults(1).failFast());
+		failFastServer.start();
+		try {
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + failFastServer.getPort()
+					+ "/query")).POST(HttpRequest.BodyPublishers.ofString("id 42\nname myPattern\nid 44\n")).build();
+			HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+			assertEquals(200, response.statusCode());
+			assertEquals("42,myPattern,src/patterns/Functional.pat,false\n\n" //
+					+ "# ERROR Query aborted: TRUNCATED\n", response.body());
+		} finally {
+			failFastServer.stop();
+		}
+	}
+
+	/**
+	 * Test for several requests sent concurrently over the same client.
+	 */
+	@Test
+	public void testConcurrentRequests() throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri))
+				.POST(HttpRequest.BodyPublishers.ofString("called\n")).build();
+		List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+		}
+		for (CompletableFuture<HttpResponse<String>> future : futures) {
+			assertEquals("43,anotherPattern,src/patterns/Another.pat,true\n"
+					+ "44,myPattern,src/patterns/MyPattern.pat,true\n\n", future.get().body());
+		}
+	}
+}
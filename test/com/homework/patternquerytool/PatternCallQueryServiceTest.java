@@ -3,9 +3,12 @@ package com.homework.patternquerytool;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -20,12 +23,12 @@ import org.mockito.Mockito;
  * @author soumya-s-goud
  */
 public class PatternCallQueryServiceTest {
-	private PatternCallRepository mockRepository;
+	private PatternCallStore mockRepository;
 	private PatternCallQueryService queryService;
 
 	@BeforeEach
 	public void setUp() {
-		mockRepository = Mockito.mock(PatternCallRepository.class);
+		mockRepository = Mockito.mock(PatternCallStore.class);
 		queryService = new PatternCallQueryService(mockRepository);
 	}
 
@@ -126,6 +129,19 @@ public class PatternCallQueryServiceTest {
 		assertTrue(actualPatternCalls.isEmpty(), "Should return an empty list for a non-existent file path.");
 	}
 
+	/**
+	 * Test for retrieving PatternCalls by id range.
+	 */
+	@Test
+	public void testGetPatternCallsInIdRange() {
+		PatternCall patternCall = new PatternCall(5, "RangePattern", "test/path.pat", true);
+		when(mockRepository.getPatternCallsInIdRange(1, 10)).thenReturn(Collections.singletonList(patternCall));
+
+		List<PatternCall> actualPatternCalls = queryService.getPatternCallsInIdRange(1, 10);
+		assertEquals(1, actualPatternCalls.size(), "Should return 1 PatternCall in the id range.");
+		assertEquals(patternCall, actualPatternCalls.get(0));
+	}
+
 	/**
 	 * Test for retrieving skipped PatternCalls.
 	 */
@@ -133,7 +149,10 @@ public class PatternCallQueryServiceTest {
 	public void testGetSkippedPatternCalls() {
 		PatternCall patternCall1 = new PatternCall(1, "SkippedPattern", "test/path1.pat", false);
 		PatternCall patternCall2 = new PatternCall(2, "CalledPattern", "test/path2.pat", true);
-		when(mockRepository.getPatternCalls()).thenReturn(Arrays.asList(patternCall1, patternCall2));
+		PatternCallRepository repository = new PatternCallRepository();
+		repository.addPatternCall(patternCall1);
+		repository.addPatternCall(patternCall2);
+		queryService = new PatternCallQueryService(repository);
 
 		List<PatternCall> skippedPatternCalls = queryService.getSkippedPatternCalls();
 		assertEquals(1, skippedPatternCalls.size(), "Should return 1 skipped PatternCall.");
@@ -148,11 +167,147 @@ public class PatternCallQueryServiceTest {
 	public void testGetCalledPatternCalls() {
 		PatternCall patternCall1 = new PatternCall(1, "CalledPattern", "test/path1.pat", true);
 		PatternCall patternCall2 = new PatternCall(2, "SkippedPattern", "test/path2.pat", false);
-		when(mockRepository.getPatternCalls()).thenReturn(Arrays.asList(patternCall1, patternCall2));
+		PatternCallRepository repository = new PatternCallRepository();
+		repository.addPatternCall(patternCall1);
+		repository.addPatternCall(patternCall2);
+		queryService = new PatternCallQueryService(repository);
 
 		List<PatternCall> calledPatternCalls = queryService.getCalledPatternCalls();
 		assertEquals(1, calledPatternCalls.size(), "Should return 1 called PatternCall.");
 		assertEquals(patternCall1, calledPatternCalls.get(0),
 				"The called PatternCall should match the expected PatternCall.");
 	}
+
+	/**
+	 * Test for a bounded query that completes within its limits.
+	 */
+	@Test
+	public void testGetSkippedPatternCalls_WithinLimits() {
+		queryService = new PatternCallQueryService(repository(10));
+
+		QueryResult result = queryService.getSkippedPatternCalls(
+				QueryOptions.unbounded().withMaxResults(5).withTimeout(Duration.ofMinutes(1)));
+		assertTrue(result.isComplete());
+		assertEquals(5, result.getPatternCalls().size(), "Every second PatternCall is skipped.");
+	}
+
+	/**
+	 * Test for a query stopped by its result limit, returning partial results.
+	 */
+	@Test
+	public void testGetCalledPatternCalls_Truncated() {
+		queryService = new PatternCallQueryService(repository(10));
+
+		QueryResult result = queryService.getCalledPatternCalls(QueryOptions.unbounded().withMaxResults(3));
+		assertEquals(QueryResult.Status.TRUNCATED, result.getStatus());
+		assertEquals(3, result.getPatternCalls().size());
+		assertEquals(4, result.getPatternCalls().get(2).getId());
+	}
+
+	/**
+	 * Test for a query stopped by an expired timeout and one stopped by a
+	 * cancelled token.
+	 */
+	@Test
+	public void testGetSkippedPatternCalls_TimedOutAndCancelled() {
+		queryService = new PatternCallQueryService(repository(3 * QueryCollector.CHECK_INTERVAL));
+
+		QueryResult timedOut = queryService.getSkippedPatternCalls(QueryOptions.unbounded().withTimeout(Duration.ZERO));
+		assertEquals(QueryResult.Status.TIMED_OUT, timedOut.getStatus());
+		assertTrue(timedOut.getPatternCalls().isEmpty());
+
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		QueryResult cancelled = queryService
+				.getSkippedPatternCalls(QueryOptions.unbounded().withCancellationToken(token));
+		assertEquals(QueryResult.Status.CANCELLED, cancelled.getStatus());
+	}
+
+	/**
+	 * Negative test case for a fail-fast query hitting its result limit.
+	 */
+	@Test
+	public void testGetPatternCallsByName_FailFast() {
+		queryService = new PatternCallQueryService(repository(4));
+
+		QueryAbortedException exception = assertThrows(QueryAbortedException.class, () -> queryService
+				.getPatternCallsByName("Pattern", QueryOptions.unbounded().withMaxResults(2).failFast()));
+		assertEquals(QueryResult.Status.TRUNCATED, exception.getStatus());
+		assertEquals(4,
+				queryService.getPatternCallsByName("Pattern", QueryOptions.unbounded()).getPatternCalls().size());
+	}
+
+	/**
+	 * Test for bounded range and ordered queries, which stop inside the
+	 * repository's walk of the sorted ids.
+	 */
+	@Test
+	public void testGetPatternCallsInIdRange_Bounded() {
+		queryService = new PatternCallQueryService(repository(100));
+
+		QueryResult range = queryService.getPatternCallsInIdRange(10, 50, QueryOptions.unbounded().withMaxResults(3));
+		assertEquals(QueryResult.Status.TRUNCATED, range.getStatus());
+		assertEquals(12, range.getPatternCalls().get(2).getId());
+		assertTrue(queryService.getPatternCallsInIdRange(10, 12, QueryOptions.unbounded().withMaxResults(3))
+				.isComplete());
+
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		QueryResult sorted = queryService
+				.getPatternCallsSortedById(QueryOptions.unbounded().withCancellationToken(token));
+		assertEquals(QueryResult.Status.CANCELLED, sorted.getStatus());
+		assertTrue(sorted.getPatternCalls().isEmpty());
+	}
+
+	/**
+	 * Test for a bounded name lookup under the adaptive IndexPolicy, whose scan
+	 * of the unindexed records stops at the limit and is not cached.
+	 */
+	@Test
+	public void testGetPatternCallsByName_BoundedScan() {
+		PatternCallRepository repository = new PatternCallRepository(IndexPolicy.adaptive());
+		for (int i = 0; i < 10; i++) {
+			repository.addPatternCall(new PatternCall(i, "Pattern", "test/path.pat", true));
+		}
+		queryService = new PatternCallQueryService(repository);
+
+		for (int i = 0; i < 3; i++) {
+			QueryResult result = queryService.getPatternCallsByName("Pattern",
+					QueryOptions.unbounded().withMaxResults(4));
+			assertEquals(QueryResult.Status.TRUNCATED, result.getStatus());
+			assertEquals(4, result.getPatternCalls().size());
+		}
+		assertFalse(repository.isNameIndexBuilt());
+		assertEquals(10, queryService.getPatternCallsByName("Pattern", QueryOptions.unbounded()).getPatternCalls()
+				.size());
+		assertEquals(10, queryService.getPatternCallsByName("Pattern").size());
+	}
+
+	/**
+	 * Test that bounded queries are answered by the repository's own bounded
+	 * lookups rather than by filtering unbounded results.
+	 */
+	@Test
+	public void testBoundedQueries_DelegateToRepository() {
+		QueryOptions options = QueryOptions.unbounded().withMaxResults(1);
+		QueryResult expected = new QueryResult(List.of(), QueryResult.Status.COMPLETE);
+		when(mockRepository.findPatternCalls(Mockito.any(), Mockito.eq(options))).thenReturn(expected);
+		when(mockRepository.getPatternCallsByPath("test/path.pat", options)).thenReturn(expected);
+
+		assertSame(expected, queryService.getSkippedPatternCalls(options));
+		assertSame(expected, queryService.getPatternCallsByPath("test/path.pat", options));
+		Mockito.verify(mockRepository, Mockito.never()).getPatternCalls();
+	}
+
+	/**
+	 * Returns a repository of the given number of PatternCalls, of which those
+	 * with an even id are called.
+	 */
+	private static PatternCallRepository repository(int count) {
+		PatternCallRepository repository = new PatternCallRepository();
+		for (int i = 0; i < count; i++) {
+			repository.addPatternCall(new PatternCall(i, "Pattern", "test/path.pat", i % 2 == 0));
+		}
+		return repository;
+	}
 }
@@ -0,0 +1,116 @@
+package com.homework.patternquerytool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PatternCallQuery.
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallQueryTest {
+
+	/**
+	 * Test for parsing each supported query form.
+	 */
+	@Test
+	public void testParse_ValidQueries() {
+		PatternCallQuery byId = PatternCallQuery.parse("id 42");
+		assertEquals(PatternCallQuery.Type.ID, byId.getType());
+		assertEquals("42", byId.getArgument());
+
+		PatternCallQuery byPath = PatternCallQuery.parse("  PATH   src/patterns/My Pattern.pat ");
+		assertEquals(PatternCallQuery.Type.PATH, byPath.getType());
+		assertEquals("src/patterns/My Pattern.pat", byPath.getArgument());
+
+		PatternCallQuery skipped = PatternCallQuery.parse("skipped");
+		assertEquals(PatternCallQuery.Type.SKIPPED, skipped.getType());
+		assertNull(skipped.getArgument());
+		assertEquals("skipped", skipped.toString());
+		assertEquals("name myPattern", PatternCallQuery.parse("Name myPattern").toString());
+	}
+
+	/**
+	 * Test for parsing the trailing limit and timeout options.
+	 */
+	@Test
+	public void testParse_Options() {
+		PatternCallQuery skipped = PatternCallQuery.parse("skipped timeout=100  limit=5");
+		assertEquals(PatternCallQuery.Type.SKIPPED, skipped.getType());
+		assertEquals(5, skipped.getLimit());
+		assertEquals(Duration.ofMillis(100), skipped.getTimeout());
+		assertEquals("skipped limit=5 timeout=100", skipped.toString());
+
+		PatternCallQuery byPath = PatternCallQuery.parse("path src/patterns/My Pattern.pat limit=2");
+		assertEquals("src/patterns/My Pattern.pat", byPath.getArgument());
+		assertNull(byPath.getTimeout());
+		assertNull(PatternCallQuery.parse("name limits=2").getLimit());
+
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse("called limit=-1"));
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse("called timeout=soon"));
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse("name limit=2"));
+	}
+
+	/**
+	 * Negative test case for malformed query lines.
+	 */
+	@Test
+	public void testParse_InvalidQueries() {
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse(""));
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse("unknown 1"));
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse("id abc"));
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse("name"));
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse("called now"));
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse("range 1"));
+		assertThrows(IllegalArgumentException.class, () -> PatternCallQuery.parse("range 1 x"));
+	}
+
+	/**
+	 * Test for executing queries against a query service.
+	 */
+	@Test
+	public void testExecute() {
+		PatternCallRepository repository = new PatternCallRepository();
+		repository.addPatternCall(new PatternCall(1, "PatternOne", "src/patterns/One.pat", true));
+		repository.addPatternCall(new PatternCall(2, "PatternTwo", "src/patterns/Two.pat", false));
+		PatternCallQueryService queryService = new PatternCallQueryService(repository);
+
+		assertEquals(1, PatternCallQuery.parse("id 1").execute(queryService).get(0).getId());
+		assertTrue(PatternCallQuery.parse("id 3").execute(queryService).isEmpty());
+		List<PatternCall> skipped = PatternCallQuery.parse("skipped").execute(queryService);
+		assertEquals(1, skipped.size());
+		assertEquals(2, skipped.get(0).getId());
+		assertEquals(1, PatternCallQuery.parse("path src/patterns/Two.pat").execute(queryService).size());
+		assertEquals(2, PatternCallQuery.parse("range -5  2").execute(queryService).size());
+	}
+
+	/**
+	 * Test for executing queries within default limits and their own options.
+	 */
+	@Test
+	public void testExecute_WithOptions() {
+		PatternCallRepository repository = new PatternCallRepository();
+		for (int id = 1; id <= 5; id++) {
+			repository.addPatternCall(new PatternCall(id, "Pattern", "src/patterns/P.pat", id % 2 == 0));
+		}
+		PatternCallQueryService queryService = new PatternCallQueryService(repository);
+		QueryOptions defaults = QueryOptions.unbounded().withMaxResults(2);
+
+		QueryResult truncated = PatternCallQuery.parse("range 1 5").execute(queryService, defaults);
+		assertEquals(QueryResult.Status.TRUNCATED, truncated.getStatus());
+		assertEquals(2, truncated.getPatternCalls().size());
+		assertTrue(PatternCallQuery.parse("range 1 5 limit=10").execute(queryService, defaults).isComplete());
+		assertEquals(QueryResult.Status.TRUNCATED,
+				PatternCallQuery.parse("id 3 limit=0").execute(queryService, defaults).getStatus());
+		assertEquals(QueryResult.Status.TIMED_OUT,
+				PatternCallQuery.parse("skipped timeout=0").execute(queryService, defaults).getStatus());
+		assertEquals(1, PatternCallQuery.parse("called limit=1").execute(queryService).size());
+	}
+}
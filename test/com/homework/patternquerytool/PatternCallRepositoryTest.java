@@ -1,6 +1,7 @@
 package com.homework.patternquerytool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -9,7 +10,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -165,6 +173,377 @@ public class PatternCallRepositoryTest {
 		assertTrue(repository.getPatternCallsByPath("src/PATTERNS/CASESENSITIVE.PAT").isEmpty());
 	}
 
+	/**
+	 * Test for removing a PatternCall, which drops it from every index and keeps
+	 * the order of the others.
+	 */
+	@Test
+	public void testRemovePatternCall() {
+		repository.addPatternCall(new PatternCall(1, "CommonPattern", "src/patterns/Path1.pat", true));
+		repository.addPatternCall(new PatternCall(2, "CommonPattern", "src/patterns/Path2.pat", false));
+		repository.addPatternCall(new PatternCall(3, "OtherPattern", "src/patterns/Path2.pat", true));
+
+		assertTrue(repository.removePatternCall(2));
+		assertFalse(repository.removePatternCall(2), "Removing twice should report nothing removed.");
+
+		assertNull(repository.getPatternCallById(2));
+		assertEquals(1, repository.getPatternCallsByName("CommonPattern").size());
+		assertEquals(3, repository.getPatternCallsByPath("src/patterns/Path2.pat").get(0).getId());
+		assertEquals(2, repository.getPatternCalls().size());
+		assertEquals(1, repository.getPatternCalls().get(0).getId());
+		assertEquals(3, repository.getPatternCalls().get(1).getId());
+
+		// The ID can be reused after removal
+		repository.addPatternCall(new PatternCall(2, "NewPattern", "src/patterns/New.pat", true));
+		assertEquals("NewPattern", repository.getPatternCallById(2).getName());
+		assertEquals(2, repository.getPatternCalls().get(2).getId());
+	}
+
+	/**
+	 * Test for removing most PatternCalls, which compacts the list while
+	 * keeping later removals and updates consistent.
+	 */
+	@Test
+	public void testRemovePatternCall_Compaction() {
+		for (int i = 0; i < 1000; i++) {
+			repository.addPatternCall(new PatternCall(i, "pattern" + (i % 10), "src/patterns/P.pat", true));
+		}
+		for (int i = 0; i < 1000; i += 4) {
+			repository.removePatternCall(i);
+			repository.removePatternCall(i + 1);
+			repository.removePatternCall(i + 2);
+		}
+		assertTrue(repository.updatePatternCall(new PatternCall(999, "pattern9", "src/patterns/P.pat", false)));
+
+		List<PatternCall> patternCalls = repository.getPatternCalls();
+		assertEquals(250, patternCalls.size());
+		assertEquals(3, patternCalls.get(0).getId());
+		assertFalse(patternCalls.get(249).isCalled());
+		assertEquals(250, repository.getPatternCallsByPath("src/patterns/P.pat").size());
+	}
+
+	/**
+	 * Test for removals and updates within one large posting list, which keep
+	 * the remaining calls in the order they were added.
+	 */
+	@Test
+	public void testRemoveAndUpdate_SharedPostingList() {
+		for (int i = 0; i < 100; i++) {
+			repository.addPatternCall(new PatternCall(i, "Shared", "src/patterns/Shared.pat", true));
+		}
+		for (int i = 0; i < 90; i++) {
+			repository.removePatternCall(i);
+		}
+		assertTrue(repository.updatePatternCall(new PatternCall(95, "Shared", "src/patterns/Shared.pat", false)));
+		assertTrue(repository.updatePatternCall(new PatternCall(96, "Moved", "src/patterns/Shared.pat", true)));
+
+		List<PatternCall> shared = repository.getPatternCallsByName("Shared");
+		assertEquals(List.of(90, 91, 92, 93, 94, 95, 97, 98, 99),
+				shared.stream().map(PatternCall::getId).collect(Collectors.toList()));
+		assertFalse(shared.get(5).isCalled());
+		assertEquals(10, repository.getPatternCallsByPath("src/patterns/Shared.pat").size());
+
+		shared.clear();
+		assertEquals(9, repository.getPatternCallsByName("Shared").size(), "Lookups must return copies.");
+	}
+
+	/**
+	 * Test that readers walking snapshots see consistent lists while another
+	 * thread removes and compacts.
+	 */
+	@Test
+	public void testGetPatternCalls_ConcurrentRemovals() throws Exception {
+		for (int i = 0; i < 10_000; i++) {
+			repository.addPatternCall(new PatternCall(i, "pattern" + (i % 10), "src/patterns/P.pat", i % 2 == 0));
+		}
+		List<PatternCall> before = repository.getPatternCalls();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> readers = new ArrayList<>();
+			for (int t = 0; t < 3; t++) {
+				readers.add(executor.submit(() -> {
+					for (int round = 0; round < 50; round++) {
+						for (PatternCall patternCall : repository.getPatternCalls()) {
+							assertNotNull(patternCall, "Snapshots must not contain tombstones.");
+						}
+					}
+				}));
+			}
+			Future<?> writer = executor.submit(() -> {
+				for (int i = 0; i < 10_000; i += 3) {
+					repository.removePatternCall(i);
+				}
+			});
+			writer.get();
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(10_000, before.size(), "Earlier snapshots must not change.");
+		assertEquals(6_666, repository.getPatternCalls().size());
+		assertEquals(1, repository.getPatternCalls().get(0).getId());
+	}
+
+	/**
+	 * Test for updating a PatternCall in place, including a change of name.
+	 */
+	@Test
+	public void testUpdatePatternCall() {
+		repository.addPatternCall(new PatternCall(1, "PatternOne", "src/patterns/One.pat", true));
+		repository.addPatternCall(new PatternCall(2, "PatternTwo", "src/patterns/Two.pat", true));
+
+		assertTrue(repository.updatePatternCall(new PatternCall(1, "PatternOne", "src/patterns/One.pat", false)));
+		assertTrue(repository.updatePatternCall(new PatternCall(2, "Renamed", "src/patterns/Two.pat", true)));
+		assertFalse(repository.updatePatternCall(new PatternCall(3, "Missing", "src/patterns/Three.pat", true)));
+
+		assertFalse(repository.getPatternCallById(1).isCalled());
+		assertFalse(repository.getPatternCallsByName("PatternOne").get(0).isCalled());
+		assertFalse(repository.getPatternCallsByPath("src/patterns/One.pat").get(0).isCalled());
+		assertFalse(repository.getPatternCalls().get(0).isCalled());
+		assertTrue(repository.getPatternCallsByName("PatternTwo").isEmpty());
+		assertEquals(2, repository.getPatternCallsByName("Renamed").get(0).getId());
+		assertNull(repository.getPatternCallById(3));
+		assertThrows(IllegalArgumentException.class, () -> repository.updatePatternCall(null));
+	}
+
+	/**
+	 * Test for range and ordered queries over ids added out of order.
+	 */
+	@Test
+	public void testIdRangeQueries() {
+		int[] ids = { 1500, 1000, 2500, -3, 2000, 1999 };
+		for (int id : ids) {
+			repository.addPatternCall(new PatternCall(id, "pattern" + id, "src/patterns/P.pat", true));
+		}
+
+		assertEquals(List.of(1000, 1500, 1999, 2000), ids(repository.getPatternCallsInIdRange(1000, 2000)));
+		assertTrue(repository.getPatternCallsInIdRange(3000, 4000).isEmpty());
+		assertTrue(repository.getPatternCallsInIdRange(2000, 1000).isEmpty());
+		assertEquals(List.of(-3, 1000, 1500, 1999, 2000, 2500), ids(repository.getPatternCallsSortedById()));
+		assertEquals(-3, repository.getPatternCallWithMinId().getId());
+		assertEquals(2500, repository.getPatternCallWithMaxId().getId());
+		assertEquals(2, repository.getIdRank(1500));
+		assertEquals(3, repository.getIdRank(1600));
+		assertEquals(1999, repository.getPatternCallByIdRank(3).getId());
+		assertThrows(IndexOutOfBoundsException.class, () -> repository.getPatternCallByIdRank(6));
+	}
+
+	/**
+	 * Test for range queries staying correct across removals, updates and
+	 * further additions.
+	 */
+	@Test
+	public void testIdRangeQueries_AfterChanges() {
+		assertNull(repository.getPatternCallWithMinId());
+		assertTrue(repository.getPatternCallsSortedById().isEmpty());
+		for (int id = 0; id < 10; id++) {
+			repository.addPatternCall(new PatternCall(id, "pattern" + id, "src/patterns/P.pat", true));
+		}
+		assertEquals(List.of(3, 4, 5), ids(repository.getPatternCallsInIdRange(3, 5)));
+
+		repository.removePatternCall(4);
+		repository.updatePatternCall(new PatternCall(5, "pattern5", "src/patterns/P.pat", false));
+		repository.addPatternCall(new PatternCall(-1, "patternMinus", "src/patterns/P.pat", true));
+
+		List<PatternCall> range = repository.getPatternCallsInIdRange(-1, 5);
+		assertEquals(List.of(-1, 0, 1, 2, 3, 5), ids(range));
+		assertFalse(range.get(5).isCalled());
+		assertEquals(9, repository.getPatternCallWithMaxId().getId());
+		assertEquals(List.of(9), ids(repository.getPatternCallsInIdRange(9, Integer.MAX_VALUE)));
+	}
+
+	/**
+	 * Test that the sorted id index follows random additions and removals in
+	 * place, matching a sorted set after every change.
+	 */
+	@Test
+	public void testIdRangeQueries_RandomChanges() {
+		TreeSet<Integer> expected = new TreeSet<>();
+		Random random = new Random(7);
+		for (int i = 0; i < 2000; i++) {
+			int id = random.nextInt(500) - 250;
+			if (random.nextInt(3) == 0) {
+				repository.removePatternCall(id);
+				expected.remove(id);
+			} else {
+				repository.addPatternCall(new PatternCall(id, "pattern", "src/patterns/P.pat", true));
+				expected.add(id);
+			}
+			if (i % 100 == 0) {
+				assertEquals(List.copyOf(expected.subSet(-100, true, 100, true)),
+						ids(repository.getPatternCallsInIdRange(-100, 100)));
+			}
+		}
+		assertEquals(List.copyOf(expected), ids(repository.getPatternCallsSortedById()));
+		assertEquals(expected.headSet(0).size(), repository.getIdRank(0));
+	}
+
+	/**
+	 * Test that ranks, min/max and bounded range queries stay exact while
+	 * removed ids are only marked dead and ids added out of order wait in the
+	 * side array of the sorted id index.
+	 */
+	@Test
+	public void testIdRankQueries_RandomChanges() {
+		TreeSet<Integer> expected = new TreeSet<>();
+		for (int id = 0; id < 3000; id += 2) {
+			repository.addPatternCall(new PatternCall(id, "pattern", "src/patterns/P.pat", true));
+			expected.add(id);
+		}
+		Random random = new Random(11);
+		for (int i = 0; i < 6000; i++) {
+			int id = random.nextInt(3200);
+			if (random.nextBoolean()) {
+				repository.removePatternCall(id);
+				expected.remove(id);
+			} else {
+				repository.addPatternCall(new PatternCall(id, "pattern", "src/patterns/P.pat", true));
+				expected.add(id);
+			}
+			if (i % 250 == 0) {
+				List<Integer> sorted = List.copyOf(expected);
+				int rank = random.nextInt(sorted.size());
+				assertEquals(sorted.get(rank), repository.getPatternCallByIdRank(rank).getId());
+				assertEquals(expected.headSet(id).size(), repository.getIdRank(id));
+				assertEquals(expected.first(), repository.getPatternCallWithMinId().getId());
+				assertEquals(expected.last(), repository.getPatternCallWithMaxId().getId());
+				assertEquals(List.copyOf(expected.subSet(id, true, 3200, true)).subList(0,
+						Math.min(5, expected.tailSet(id).size())),
+						ids(repository.getPatternCallsInIdRange(id, 3200, QueryOptions.unbounded().withMaxResults(5))
+								.getPatternCalls()));
+			}
+		}
+		assertEquals(List.copyOf(expected), ids(repository.getPatternCallsSortedById()));
+	}
+
+	/**
+	 * Test that a bulk add skips ids already stored, including duplicates within
+	 * the batch, and keeps the sorted id index in order.
+	 */
+	@Test
+	public void testAddPatternCalls() {
+		repository.addPatternCall(new PatternCall(5, "pattern", "src/patterns/P.pat", true));
+		List<PatternCall> batch = new ArrayList<>();
+		for (int id = 9; id >= 0; id--) {
+			batch.add(new PatternCall(id, "pattern", "src/patterns/P.pat", true));
+		}
+		batch.add(new PatternCall(3, "duplicate", "src/patterns/P.pat", true));
+
+		assertEquals(9, repository.addPatternCalls(batch));
+		assertEquals(10, repository.getPatternCallCount());
+		assertEquals("pattern", repository.getPatternCallById(3).getName());
+		assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), ids(repository.getPatternCallsSortedById()));
+		assertEquals(10, repository.getPatternCallsByName("pattern").size());
+	}
+
+	/**
+	 * Test that a load of ids in descending order leaves the sorted id index
+	 * sorted, including after a strict load fails part way.
+	 */
+	@Test
+	public void testReadFromFile_UnorderedIds() throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (int id = 999; id >= 0; id--) {
+			content.append(id).append(",pattern,src/patterns/P.pat,true\n");
+		}
+		Files.writeString(testFilePath, content + "bad,line,src/patterns/P.pat,true\n");
+
+		assertThrows(IllegalArgumentException.class, () -> repository.readFromFile(testFilePath.toString()));
+		assertEquals(1000, repository.getPatternCallsSortedById().size());
+		assertEquals(0, repository.getPatternCallWithMinId().getId());
+		assertEquals(List.of(10, 11, 12), ids(repository.getPatternCallsInIdRange(10, 12)));
+	}
+
+	/**
+	 * Test for the adaptive index policy building the name index only after
+	 * enough lookups, while answering correctly before that.
+	 */
+	@Test
+	public void testAdaptiveIndex_BuiltAfterThreshold() {
+		PatternCallRepository adaptive = new PatternCallRepository(
+				IndexPolicy.adaptive().withBuildThreshold(3).withHotKeyCacheSize(2));
+		adaptive.addPatternCall(new PatternCall(1, "CommonPattern", "src/patterns/Path1.pat", true));
+		adaptive.addPatternCall(new PatternCall(2, "CommonPattern", "src/patterns/Path2.pat", false));
+		adaptive.addPatternCall(new PatternCall(3, "OtherPattern", "src/patterns/Path2.pat", true));
+
+		assertFalse(adaptive.isNameIndexBuilt());
+		assertFalse(adaptive.isPathIndexBuilt());
+		assertEquals(2, adaptive.getPatternCallsByName("CommonPattern").size());
+		assertEquals(2, adaptive.getPatternCallsByName("CommonPattern").size());
+		assertFalse(adaptive.isNameIndexBuilt());
+		assertEquals(1, adaptive.getPatternCallsByName("OtherPattern").size());
+		assertTrue(adaptive.isNameIndexBuilt(), "Index should be built at the threshold.");
+		assertFalse(adaptive.isPathIndexBuilt(), "Path index should not be built without path lookups.");
+		assertEquals(3, adaptive.getNameLookupCount());
+		assertEquals(0, adaptive.getPathLookupCount());
+
+		adaptive.addPatternCall(new PatternCall(4, "OtherPattern", "src/patterns/Path4.pat", true));
+		assertEquals(2, adaptive.getPatternCallsByName("OtherPattern").size());
+	}
+
+	/**
+	 * Test for the hot key cache staying consistent with additions, removals and
+	 * updates while the index is not built.
+	 */
+	@Test
+	public void testAdaptiveIndex_HotKeyCacheInvalidation() {
+		PatternCallRepository adaptive = new PatternCallRepository(IndexPolicy.adaptive().withBuildThreshold(1000));
+		adaptive.addPatternCall(new PatternCall(1, "HotPattern", "src/patterns/Hot.pat", true));
+		assertEquals(1, adaptive.getPatternCallsByPath("src/patterns/Hot.pat").size());
+		List<PatternCall> cached = adaptive.getPatternCallsByPath("src/patterns/Hot.pat"); // now cached
+		assertEquals(1, cached.size());
+		assertThrows(UnsupportedOperationException.class, () -> cached.clear());
+		assertEquals(1, adaptive.getPatternCallsByPath("src/patterns/Hot.pat").size());
+
+		adaptive.addPatternCall(new PatternCall(2, "HotPattern", "src/patterns/Hot.pat", false));
+		assertEquals(2, adaptive.getPatternCallsByPath("src/patterns/Hot.pat").size());
+
+		adaptive.removePatternCall(1);
+		assertEquals(List.of(2), ids(adaptive.getPatternCallsByPath("src/patterns/Hot.pat")));
+
+		adaptive.updatePatternCall(new PatternCall(2, "HotPattern", "src/patterns/Cold.pat", false));
+		assertTrue(adaptive.getPatternCallsByPath("src/patterns/Hot.pat").isEmpty());
+		assertEquals(1, adaptive.getPatternCallsByPath("src/patterns/Cold.pat").size());
+		assertFalse(adaptive.isPathIndexBuilt());
+	}
+
+	/**
+	 * Test for the adaptive index policy dropping an index that is no longer
+	 * looked up, and keeping the one in use.
+	 */
+	@Test
+	public void testAdaptiveIndex_UnusedIndexDropped() {
+		PatternCallRepository adaptive = new PatternCallRepository(
+				IndexPolicy.adaptive().withBuildThreshold(1).withDropInterval(10));
+		adaptive.addPatternCall(new PatternCall(1, "PatternOne", "src/patterns/One.pat", true));
+
+		adaptive.getPatternCallsByName("PatternOne");
+		adaptive.getPatternCallsByPath("src/patterns/One.pat");
+		assertTrue(adaptive.isNameIndexBuilt());
+		assertTrue(adaptive.isPathIndexBuilt());
+
+		for (int i = 0; i < 20; i++) {
+			adaptive.getPatternCallsByPath("src/patterns/One.pat");
+		}
+		assertFalse(adaptive.isNameIndexBuilt(), "Unused name index should be dropped.");
+		assertTrue(adaptive.isPathIndexBuilt());
+		assertEquals(1, adaptive.getPatternCallsByName("PatternOne").size());
+	}
+
+	/**
+	 * Test for the default eager index policy keeping both indexes.
+	 */
+	@Test
+	public void testEagerIndex() {
+		assertTrue(repository.isNameIndexBuilt());
+		assertTrue(repository.isPathIndexBuilt());
+		assertThrows(IllegalStateException.class, () -> IndexPolicy.eager().withBuildThreshold(1));
+	}
+
 	/**
 	 * Test for reading a valid file with multiple pattern entries.
 	 */
@@ -251,6 +630,66 @@ public class PatternCallRepositoryTest {
 	    assertTrue(exception.getMessage().contains("notBoolean"), "Expected exception message to contain 'notBoolean'.");
 	}
 
+	/**
+	 * Test for the skip policy, which continues past invalid lines and reports
+	 * them with their line numbers.
+	 */
+	@Test
+	public void testReadFromFile_SkipPolicy() throws IOException {
+		Path filePath = Path.of("test/resources/mixed_invalid_lines.txt");
+
+		PatternCallLoadReport report = repository.readFromFile(filePath.toString(), ParsePolicy.skip());
+
+		assertEquals(2, repository.getPatternCalls().size(), "Expected the 2 valid lines to be loaded.");
+		assertEquals(2, report.getPatternCallsAdded());
+		assertEquals(3, report.getLinesRejected());
+		assertEquals(List.of(2, 3, 5), report.getErrors().stream().map(PatternCallLoadReport.LoadError::getLineNumber)
+				.collect(Collectors.toList()));
+		assertTrue(report.getErrors().get(0).getMessage().contains("maybe"));
+	}
+
+	/**
+	 * Test for the bounded error report, which keeps counting beyond its limit.
+	 */
+	@Test
+	public void testReadFromFile_ErrorReportBounded() throws IOException {
+		Path filePath = Path.of("test/resources/mixed_invalid_lines.txt");
+
+		PatternCallLoadReport report = repository.readFromFile(filePath.toString(),
+				ParsePolicy.skip().withMaxErrors(1));
+
+		assertEquals(1, report.getErrors().size());
+		assertEquals(3, report.getLinesRejected());
+	}
+
+	/**
+	 * Test for the quarantine policy, which writes rejected lines to a reject
+	 * file.
+	 */
+	@Test
+	public void testReadFromFile_QuarantinePolicy() throws IOException {
+		Path filePath = Path.of("test/resources/mixed_invalid_lines.txt");
+
+		repository.readFromFile(filePath.toString(), ParsePolicy.quarantine(testFilePath));
+
+		assertEquals(2, repository.getPatternCalls().size());
+		assertEquals(List.of("2,second,src/patterns/Second.pat,maybe", "only,three,fields",
+				"x,bad,src/patterns/BadId.pat,false"), Files.readAllLines(testFilePath));
+	}
+
+	/**
+	 * Test for the strict policy, which keeps the records read before the invalid
+	 * line.
+	 */
+	@Test
+	public void testReadFromFile_StrictPolicyKeepsEarlierRecords() {
+		Path filePath = Path.of("test/resources/mixed_invalid_lines.txt");
+
+		assertThrows(IllegalArgumentException.class,
+				() -> repository.readFromFile(filePath.toString(), ParsePolicy.strict()));
+		assertEquals(1, repository.getPatternCalls().size());
+	}
+
 	/**
 	 * Valid test case for writing pattern calls to a file.
 	 */
@@ -312,4 +751,7 @@ public class PatternCallRepositoryTest {
 		assertEquals("1,pattern@Name$,src/patterns/Pattern#1.pat,true", lines.get(0));
 	}
 
+	private static List<Integer> ids(List<PatternCall> patternCalls) {
+		return patternCalls.stream().map(PatternCall::getId).collect(Collectors.toList());
+	}
 }
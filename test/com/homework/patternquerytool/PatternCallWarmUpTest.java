@@ -0,0 +1,45 @@
+package com.homework.patternquerytool;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PatternCallWarmUp.
+ *
+ * @author soumya-s-goud
+ */
+public class PatternCallWarmUpTest {
+
+	/**
+	 * Test for running a small warm-up.
+	 */
+	@Test
+	public void testRun() throws IOException {
+		Duration duration = new PatternCallWarmUp(500, 2).run();
+		assertFalse(duration.isNegative());
+	}
+
+	/**
+	 * Test for warming up the query paths of both kinds of repository on private
+	 * repositories.
+	 */
+	@Test
+	public void testRun_QueryPaths() throws IOException {
+		assertFalse(new PatternCallWarmUp(200, 2).run(null).isNegative());
+		assertFalse(new PatternCallWarmUp(200, 2).run(MemoryBudget.ofMegabytes(1)).isNegative());
+	}
+
+	/**
+	 * Negative test case for non-positive record and iteration counts.
+	 */
+	@Test
+	public void testConstructor_InvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new PatternCallWarmUp(0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new PatternCallWarmUp(1, 0));
+	}
+}
@@ -0,0 +1,291 @@
+package com.homework.patternquerytool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for SpillingPatternCallRepository.
+ *
+ * @author soumya-s-goud
+ */
+public class SpillingPatternCallRepositoryTest {
+
+	@TempDir
+	Path directory;
+
+	private SpillingPatternCallRepository repository;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		// Room for about two segments of ten records
+		repository = new SpillingPatternCallRepository(
+				MemoryBudget.ofBytes(5_000).withSegmentSize(10).withSpillDirectory(directory.resolve("spill")));
+		for (int id = 0; id < 100; id++) {
+			repository.addPatternCall(patternCall(id, id % 2 == 0));
+		}
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		repository.close();
+	}
+
+	/**
+	 * Test that segments beyond the budget are spilled to disk.
+	 */
+	@Test
+	public void testAdd_SpillsBeyondBudget() throws IOException {
+		assertEquals(100, repository.getPatternCalls().size());
+		assertEquals(10, repository.getSegmentCount());
+		assertTrue(repository.getResidentSegmentCount() < 10);
+		assertTrue(repository.getResidentBytes() <= 5_000);
+		try (Stream<Path> files = Files.list(directory.resolve("spill"))) {
+			assertTrue(files.count() >= 8, "Evicted segments should have been written.");
+		}
+	}
+
+	/**
+	 * Test for lookups that page spilled segments back in.
+	 */
+	@Test
+	public void testLookups_PageIn() {
+		assertEquals("pattern3", repository.getPatternCallById(3).getName());
+		assertTrue(repository.getPageInCount() > 0);
+		assertNull(repository.getPatternCallById(100));
+
+		List<PatternCall> byName = repository.getPatternCallsByName("pattern3");
+		assertEquals(List.of(3, 13, 23, 33, 43, 53, 63, 73, 83, 93), ids(byName));
+		assertEquals(List.of(7, 57), ids(repository.getPatternCallsByPath("src/patterns/Pattern7.pat")));
+		assertTrue(repository.getPatternCallsByName("missing").isEmpty());
+		assertEquals(List.of(18, 19, 20, 21), ids(repository.getPatternCallsInIdRange(18, 21)));
+		QueryResult bounded = repository.getPatternCallsByName("pattern3", QueryOptions.unbounded().withMaxResults(2));
+		assertEquals(QueryResult.Status.TRUNCATED, bounded.getStatus());
+		assertEquals(List.of(3, 13), ids(bounded.getPatternCalls()));
+		QueryResult range = repository.getPatternCallsInIdRange(18, 21, QueryOptions.unbounded().withMaxResults(2));
+		assertEquals(List.of(18, 19), ids(range.getPatternCalls()));
+		assertEquals(99, repository.getPatternCallWithMaxId().getId());
+		assertEquals(42, repository.getPatternCallByIdRank(42).getId());
+		assertTrue(repository.getResidentBytes() <= 5_000);
+	}
+
+	/**
+	 * Test for queries over all records through the query service.
+	 */
+	@Test
+	public void testQueryService() {
+		PatternCallQueryService queryService = new PatternCallQueryService(repository);
+		assertEquals(50, queryService.getSkippedPatternCalls().size());
+		assertEquals(10, queryService.getCalledPatternCalls(QueryOptions.unbounded().withMaxResults(10)).getPatternCalls()
+				.size());
+		assertEquals(repository.getPatternCalls().get(57).toString(), repository.getPatternCallById(57).toString());
+		assertEquals(100, repository.getPatternCallsSortedById().size());
+	}
+
+	/**
+	 * Test that removals and updates in spilled segments survive further spills.
+	 */
+	@Test
+	public void testRemoveAndUpdate_SurviveSpill() {
+		List<PatternCall> before = repository.getPatternCalls();
+		assertTrue(repository.removePatternCall(5));
+		assertFalse(repository.removePatternCall(5));
+		assertTrue(repository.updatePatternCall(new PatternCall(15, "renamed", "src/patterns/Renamed.pat", false)));
+		assertFalse(repository.updatePatternCall(new PatternCall(500, "missing", "src/patterns/Missing.pat", true)));
+
+		// Touch every other segment so the changed ones are spilled again
+		for (int id = 20; id < 100; id += 10) {
+			repository.getPatternCallById(id);
+		}
+		assertNull(repository.getPatternCallById(5));
+		assertEquals("renamed", repository.getPatternCallById(15).getName());
+		assertEquals(List.of(15), ids(repository.getPatternCallsByName("renamed")));
+		assertEquals(List.of(25, 35, 45, 55, 65, 75, 85, 95), ids(repository.getPatternCallsByName("pattern5")));
+		assertEquals(99, repository.getPatternCalls().size());
+		assertEquals(100, before.size(), "Earlier snapshots must not change.");
+		assertEquals("pattern5", before.get(15).getName());
+		assertEquals(5, repository.getIdRank(6));
+	}
+
+	/**
+	 * Test that removals from spilled segments do not page them in, and are
+	 * applied when the segment is paged in later.
+	 */
+	@Test
+	public void testRemove_SpilledSegmentNotPagedIn() {
+		long pageIns = repository.getPageInCount();
+		for (int id = 0; id < 10; id += 2) {
+			assertTrue(repository.removePatternCall(id));
+		}
+		assertEquals(pageIns, repository.getPageInCount());
+		assertEquals(95, repository.getPatternCallCount());
+
+		assertNull(repository.getPatternCallById(4));
+		assertEquals(List.of(1, 3, 5, 7, 9), ids(repository.getPatternCallsInIdRange(0, 9)));
+		assertEquals(List.of(12, 22, 32, 42, 52, 62, 72, 82, 92), ids(repository.getPatternCallsByName("pattern2")));
+		assertEquals(List.of(1, 3, 5, 7, 9), ids(repository.getPatternCalls()).subList(0, 5));
+	}
+
+	/**
+	 * Test that id range queries over ids shuffled across the segments page each
+	 * segment in once instead of once per id.
+	 */
+	@Test
+	public void testIdRange_ShuffledIdsPageInOncePerSegment() throws IOException {
+		List<Integer> ids = new ArrayList<>();
+		for (int id = 0; id < 100; id++) {
+			ids.add(id);
+		}
+		Collections.shuffle(ids, new Random(3));
+		try (SpillingPatternCallRepository shuffled = new SpillingPatternCallRepository(
+				MemoryBudget.ofBytes(5_000).withSegmentSize(10).withSpillDirectory(directory.resolve("shuffled")))) {
+			for (int id : ids) {
+				shuffled.addPatternCall(patternCall(id, true));
+			}
+
+			long pageIns = shuffled.getPageInCount();
+			assertEquals(ids.stream().sorted().collect(Collectors.toList()), ids(shuffled.getPatternCallsSortedById()));
+			assertTrue(shuffled.getPageInCount() - pageIns <= 10);
+
+			pageIns = shuffled.getPageInCount();
+			assertEquals(List.of(20, 21, 22), ids(shuffled
+					.getPatternCallsInIdRange(20, 60, QueryOptions.unbounded().withMaxResults(3)).getPatternCalls()));
+			assertTrue(shuffled.getPageInCount() - pageIns <= 4);
+		}
+	}
+
+	/**
+	 * Negative test case for a bulk add containing null, which must add nothing.
+	 */
+	@Test
+	public void testAddPatternCalls_NullAddsNothing() {
+		List<PatternCall> batch = new ArrayList<>();
+		batch.add(patternCall(200, true));
+		batch.add(null);
+		assertThrows(IllegalArgumentException.class, () -> repository.addPatternCalls(batch));
+		assertNull(repository.getPatternCallById(200));
+		assertEquals(100, repository.getPatternCallCount());
+	}
+
+	/**
+	 * Test that lookups from several threads page segments in and out while
+	 * another thread updates records, each lookup finding its records intact.
+	 */
+	@Test
+	public void testConcurrentLookups_PageIn() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> readers = new ArrayList<>();
+			for (int t = 0; t < 3; t++) {
+				int seed = t;
+				readers.add(executor.submit(() -> {
+					Random random = new Random(seed);
+					for (int i = 0; i < 2000; i++) {
+						int id = random.nextInt(100);
+						assertEquals(id, repository.getPatternCallById(id).getId());
+						assertEquals(10, repository.getPatternCallsByName("pattern" + id % 10).size());
+					}
+				}));
+			}
+			Future<?> writer = executor.submit(() -> {
+				for (int i = 0; i < 1000; i++) {
+					int id = i % 100;
+					repository.updatePatternCall(patternCall(id, i % 3 == 0));
+				}
+			});
+			writer.get();
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(100, repository.getPatternCallCount());
+		assertTrue(repository.getResidentBytes() <= 5_000);
+	}
+
+	/**
+	 * Test for random adds and removals against the in-memory repository.
+	 */
+	@Test
+	public void testRandomOperations_MatchInMemoryRepository() {
+		PatternCallRepository expected = new PatternCallRepository();
+		for (int id = 0; id < 100; id++) {
+			expected.addPatternCall(patternCall(id, id % 2 == 0));
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < 2000; i++) {
+			int id = random.nextInt(300);
+			if (random.nextBoolean()) {
+				assertEquals(expected.removePatternCall(id), repository.removePatternCall(id));
+			} else {
+				PatternCall patternCall = patternCall(id, random.nextBoolean());
+				expected.addPatternCall(patternCall);
+				repository.addPatternCall(patternCall);
+			}
+		}
+
+		assertEquals(ids(expected.getPatternCalls()), ids(repository.getPatternCalls()));
+		assertEquals(ids(expected.getPatternCallsSortedById()), ids(repository.getPatternCallsSortedById()));
+		for (int id = 0; id < 300; id++) {
+			assertEquals(expected.getPatternCallById(id) == null, repository.getPatternCallById(id) == null);
+		}
+	}
+
+	/**
+	 * Test for loading and writing files through the spilling repository.
+	 */
+	@Test
+	public void testReadAndWriteFile() throws IOException {
+		Path file = directory.resolve("patterns.txt");
+		repository.writeToFile(file.toString());
+
+		try (SpillingPatternCallRepository loaded = new SpillingPatternCallRepository(
+				MemoryBudget.ofBytes(1).withSegmentSize(16))) {
+			PatternCallLoadReport report = loaded.readFromFile(file.toString(), ParsePolicy.strict());
+			assertEquals(100, report.getPatternCallsAdded());
+			assertEquals(1, loaded.getResidentSegmentCount(), "A single segment stays resident.");
+			assertEquals(ids(repository.getPatternCalls()), ids(loaded.getPatternCalls()));
+		}
+	}
+
+	/**
+	 * Negative test case for invalid budgets.
+	 */
+	@Test
+	public void testMemoryBudget_InvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> MemoryBudget.ofBytes(0));
+		assertThrows(IllegalArgumentException.class, () -> MemoryBudget.ofMegabytes(-1));
+		assertThrows(IllegalArgumentException.class, () -> MemoryBudget.ofBytes(1).withSegmentSize(0));
+		assertThrows(IllegalArgumentException.class, () -> new SpillingPatternCallRepository(null));
+	}
+
+	private static PatternCall patternCall(int id, boolean called) {
+		return new PatternCall(id, "pattern" + (id % 10), "src/patterns/Pattern" + (id % 50) + ".pat", called);
+	}
+
+	private static List<Integer> ids(List<PatternCall> patternCalls) {
+		return patternCalls.stream().map(PatternCall::getId).collect(Collectors.toList());
+	}
+}